@@ -1,29 +1,30 @@
 import java.util.*;
 
 public class AStarSolver extends GameSolver {
-    private final NodeComparator evaluator;
+    public enum OpenListType {
+        BINARY_HEAP,
+        BUCKET_FIFO,
+        BUCKET_LIFO
+    }
+
+    private final Heuristic heuristic;
+    private final OpenListType openListType;
+    private final SuccessorBuffer successors = new SuccessorBuffer();
+    private OffHeapCostMap reachedCosts;
 
     public AStarSolver(BoardState initial, BoardState target, boolean displayProgress) {
-        super(initial, target, displayProgress);
-        this.evaluator = new NodeComparator();
+        this(initial, target, displayProgress, Heuristic.misplacedGems(target), OpenListType.BINARY_HEAP);
     }
 
-    private class NodeComparator implements Comparator<BoardState> {
-        @Override
-        public int compare(BoardState first, BoardState second) {
-            int costComparison = Integer.compare(
-                    first.getTotalCost(targetState),
-                    second.getTotalCost(targetState)
-            );
-
-            return costComparison != 0
-                    ? costComparison
-                    : Integer.compare(first.getSequence(), second.getSequence());
-        }
+    public AStarSolver(BoardState initial, BoardState target, boolean displayProgress,
+                       Heuristic heuristic, OpenListType openListType) {
+        super(initial, target, displayProgress);
+        this.heuristic = heuristic;
+        this.openListType = openListType;
     }
 
     @Override
-    public void execute() {
+    protected void search() {
         if (!isValidConfiguration()) {
             return;
         }
@@ -48,80 +49,134 @@ public class AStarSolver extends GameSolver {
     }
 
     private BoardState performSearch() {
-        Set<BoardState> visitedNodes = new HashSet<>();
-        Set<BoardState> pendingNodes = new HashSet<>();
-        Queue<BoardState> priorityQueue = new PriorityQueue<>(evaluator);
+        StateSet visitedNodes = createLargeStateSet();
+        reachedCosts = createCostMap();
+        OpenList openNodes = createOpenList();
 
-        initializeSearch(pendingNodes, priorityQueue);
+        initializeSearch(openNodes);
 
-        while (!priorityQueue.isEmpty()) {
+        while (!openNodes.isEmpty()) {
             if (displayOpenList) {
-                visualizeSearchProgress(priorityQueue);
+                visualizeSearchProgress(openNodes);
             }
 
-            BoardState currentNode = priorityQueue.poll();
-            pendingNodes.remove(currentNode);
+            BoardState currentNode = openNodes.poll();
 
             if (currentNode.equals(targetState)) {
                 return currentNode;
             }
 
             visitedNodes.add(currentNode);
-            processNeighbors(currentNode, visitedNodes, pendingNodes, priorityQueue);
+            metrics.countExpanded();
+            metrics.observeClosedSize(visitedNodes.size());
+            processNeighbors(currentNode, visitedNodes, openNodes);
+            metrics.observeOpenSize(openNodes.size());
         }
 
         return null;
     }
 
-    private void initializeSearch(Set<BoardState> pending, Queue<BoardState> queue) {
-        exploredStates = 0;
-        queue.add(initialState);
-        pending.add(initialState);
+    private OpenList createOpenList() {
+        return switch (openListType) {
+            case BINARY_HEAP -> new IndexedHeap(getStateIndex());
+            case BUCKET_FIFO -> new BucketQueue(getStateIndex(), BucketQueue.TieBreak.FIFO);
+            case BUCKET_LIFO -> new BucketQueue(getStateIndex(), BucketQueue.TieBreak.LIFO);
+        };
     }
 
-    private void processNeighbors(
-            BoardState current,
-            Set<BoardState> visited,
-            Set<BoardState> pending,
-            Queue<BoardState> queue) {
+    private int evaluate(int estimate, int pathCost) {
+        return estimate == Heuristic.DEAD_END ? Heuristic.DEAD_END : pathCost + estimate;
+    }
 
-        for (BoardState neighbor : current) {
+    private void initializeSearch(OpenList openNodes) {
+        exploredStates = 0;
+        int estimate = heuristic.estimate(initialState.getPackedState());
+        initialState.setHeuristicEstimate(estimate);
+        if (reachedCosts != null) {
+            reachedCosts.put(initialState.getPackedState(), initialState.getPathCost(), Move.NONE);
+        }
+        int initialCost = evaluate(estimate, initialState.getPathCost());
+        if (initialCost != Heuristic.DEAD_END) {
+            openNodes.add(initialState, initialCost);
+        }
+    }
+
+    // Successors stay packed until they are known to enter the open list,
+    // so rejected neighbours never allocate a BoardState.
+    private void processNeighbors(BoardState current, StateSet visited, OpenList openNodes) {
+        current.expandInto(successors);
+        for (int i = 0; i < successors.size(); i++) {
             exploredStates++;
-            neighbor.setSequence(exploredStates);
+            metrics.countGenerated();
+
+            int packed = successors.stateAt(i);
+            if (visited.contains(packed)) {
+                metrics.countDuplicate();
+                continue;
+            }
 
-            if (isNewState(neighbor, visited, pending)) {
-                addNewState(neighbor, current, pending, queue);
-            } else if (pending.contains(neighbor)) {
-                updateExistingState(neighbor, current, queue);
+            int estimate = heuristic.estimateAfterMove(current.getHeuristicEstimate(), successors.moveAt(i), packed);
+            int cost = evaluate(estimate, current.getPathCost() + successors.costAt(i));
+            if (cost == Heuristic.DEAD_END) {
+                continue;
+            }
+
+            if (reachedCosts != null) {
+                updateRecordedState(current, i, cost, openNodes);
+                continue;
+            }
+
+            BoardState existing = openNodes.get(packed);
+            if (existing == null) {
+                addNewState(current, i, cost, openNodes);
+            } else {
+                updateExistingState(existing, current, i, cost, openNodes);
             }
         }
     }
 
-    private boolean isNewState(BoardState node, Set<BoardState> visited, Set<BoardState> pending) {
-        return !visited.contains(node) && !pending.contains(node);
+    private BoardState createNode(BoardState parent, int successor, int cost) {
+        BoardState node = parent.successor(successors, successor);
+        node.setSequence(exploredStates);
+        if (reachedCosts == null) {
+            node.setPreviousState(parent);
+        } else {
+            reachedCosts.put(node.getPackedState(), node.getPathCost(), node.getLastPackedMove());
+        }
+        node.setHeuristicEstimate(cost - node.getPathCost());
+        return node;
     }
 
-    private void addNewState(
-            BoardState node,
-            BoardState parent,
-            Set<BoardState> pending,
-            Queue<BoardState> queue) {
-
-        node.setPreviousState(parent);
-        queue.add(node);
-        pending.add(node);
+    private void addNewState(BoardState parent, int successor, int cost, OpenList openNodes) {
+        openNodes.add(createNode(parent, successor, cost), cost);
     }
 
-    private void updateExistingState(BoardState newVersion, BoardState parent, Queue<BoardState> queue) {
-        for (BoardState existing : queue) {
-            if (existing.equals(newVersion) &&
-                    existing.getTotalCost(targetState) > newVersion.getTotalCost(targetState)) {
+    private void updateExistingState(
+            BoardState existing,
+            BoardState parent,
+            int successor,
+            int newCost,
+            OpenList openNodes) {
+
+        if (openNodes.priorityOf(existing) > newCost) {
+            metrics.countReopening();
+            openNodes.decreaseKey(createNode(parent, successor, newCost), newCost);
+        } else {
+            metrics.countDuplicate();
+        }
+    }
 
-                queue.remove(existing);
-                queue.add(newVersion);
-                newVersion.setPreviousState(parent);
-                break;
-            }
+    // The cost map holds every open and closed state with its path cost,
+    // so off-heap the open list is only touched to add or re-key a state.
+    private void updateRecordedState(BoardState parent, int successor, int newCost, OpenList openNodes) {
+        int known = reachedCosts.costOf(successors.stateAt(successor));
+        if (known == OffHeapCostMap.ABSENT) {
+            addNewState(parent, successor, newCost, openNodes);
+        } else if (known > parent.getPathCost() + successors.costAt(successor)) {
+            metrics.countReopening();
+            openNodes.decreaseKey(createNode(parent, successor, newCost), newCost);
+        } else {
+            metrics.countDuplicate();
         }
     }
 
@@ -136,6 +191,11 @@ public class AStarSolver extends GameSolver {
     }
 
     private void reconstructPath(BoardState endState) {
+        metrics.enterPhase(SearchMetrics.Phase.RECONSTRUCTION);
+        if (reachedCosts != null) {
+            buildPathString(recordedMovesTo(reachedCosts, endState.getPackedState()));
+            return;
+        }
         Deque<Move> pathStack = new ArrayDeque<>();
         BoardState current = endState;
 
@@ -157,7 +217,10 @@ public class AStarSolver extends GameSolver {
         solutionPath.append("\n");
     }
 
-    private void visualizeSearchProgress(Queue<BoardState> queue) {
+    private void visualizeSearchProgress(OpenList queue) {
+        if (traceOpenList(queue)) {
+            return;
+        }
         System.out.println("\nCurrent Search Progress");
         System.out.println("======================");
         for (BoardState node : queue) {
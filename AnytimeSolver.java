@@ -0,0 +1,297 @@
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Consumer;
+
+// Anytime repairing A* (ARA*). The first pass runs weighted A* with an
+// inflated heuristic and publishes its solution as soon as it is found.
+// Each later pass lowers the weight and repairs the previous search
+// instead of starting over: g-values are kept, and states improved after
+// being expanded wait in an inconsistent set until the next pass. Passes
+// continue until the solution is proven optimal, the time limit runs out
+// or the search is cancelled; the best solution found so far is kept.
+public class AnytimeSolver extends GameSolver {
+    private static final int WEIGHT_SCALE = 100;
+    private static final int WEIGHT_STEP = 50;
+    private static final double DEFAULT_WEIGHT = 3.0;
+    private static final String TIME_LIMIT_PROPERTY = "ara.timeLimitMillis";
+    private static final long DEFAULT_TIME_LIMIT_MILLIS = 1000;
+    private static final int CLOCK_CHECK_INTERVAL = 256;
+
+    // A published solution; the cost is at most bound times the optimum.
+    public record Result(String path, int cost, double bound) {
+    }
+
+    private final Heuristic heuristic;
+    private final int initialWeight;
+    private final Duration timeLimit;
+    private final Consumer<Result> listener;
+    private final SuccessorBuffer successors = new SuccessorBuffer();
+    private volatile boolean cancelled;
+    private long deadline;
+    private int expansionsSinceClockCheck;
+    private StateIndex index;
+    private BoardState[] reached;
+    private BitSet closed;
+    private int closedCount;
+    private BitSet inconsistent;
+    private IndexedHeap open;
+    private int weight;
+    private Result best;
+
+    public AnytimeSolver(BoardState initial, BoardState target, boolean showOpenList) {
+        this(initial, target, showOpenList, Heuristic.misplacedGems(target), DEFAULT_WEIGHT,
+                Duration.ofMillis(Long.getLong(TIME_LIMIT_PROPERTY, DEFAULT_TIME_LIMIT_MILLIS)), null);
+    }
+
+    public AnytimeSolver(BoardState initial, BoardState target, boolean showOpenList, Heuristic heuristic,
+                         double initialWeight, Duration timeLimit, Consumer<Result> listener) {
+        super(initial, target, showOpenList);
+        if (initialWeight < 1.0) {
+            throw new IllegalArgumentException("Initial weight must be at least 1");
+        }
+        this.heuristic = heuristic;
+        this.initialWeight = (int) Math.round(initialWeight * WEIGHT_SCALE);
+        this.timeLimit = timeLimit;
+        this.listener = listener;
+    }
+
+    // Safe to call from any thread; the search stops at its next expansion
+    // and keeps the best solution published so far.
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public Result getResult() {
+        return best;
+    }
+
+    public double getSuboptimalityBound() {
+        return best == null ? Double.POSITIVE_INFINITY : best.bound();
+    }
+
+    @Override
+    protected void search() {
+        if (!validatePuzzle()) {
+            solutionPath.append("no path\n");
+            return;
+        }
+
+        if (initialState.equals(targetState)) {
+            solutionPath.append("start is the goal\n");
+            totalCost = 0;
+            best = new Result("", 0, 1.0);
+            return;
+        }
+
+        deadline = System.nanoTime() + timeLimit.toNanos();
+        performSearch();
+
+        if (best == null) {
+            solutionPath.append("no path\n");
+        } else {
+            solutionPath.append(best.path()).append("\n");
+            totalCost = best.cost();
+        }
+    }
+
+    private void performSearch() {
+        index = getStateIndex();
+        reached = new BoardState[Math.max(1, index.size())];
+        closed = new BitSet();
+        inconsistent = new BitSet();
+        open = new IndexedHeap(index);
+        closedCount = 0;
+        weight = initialWeight;
+        best = null;
+        exploredStates = 0;
+
+        int estimate = heuristic.estimate(initialState.getPackedState());
+        if (estimate == Heuristic.DEAD_END) {
+            return;
+        }
+        reach(index.rank(initialState), initialState);
+        open.add(initialState, priority(initialState.getPathCost(), estimate));
+
+        int goalRank = index.rank(targetState);
+        while (true) {
+            // A pass only expands states whose weighted f is below the cost
+            // of the incumbent, so that cost is the pass's bound.
+            BoardState incumbent = reachedAt(goalRank);
+            metrics.beginIteration(incumbent == null ? Integer.MAX_VALUE : incumbent.getPathCost());
+            boolean completed = improvePath(goalRank);
+            metrics.endIteration();
+
+            BoardState goal = reachedAt(goalRank);
+            if (goal == null) {
+                return;
+            }
+            if (!completed) {
+                // The pass was cut short, but a goal it reached may still
+                // beat the incumbent; only the frontier bounds it.
+                publish(goal, optimalityRatio(goal));
+                return;
+            }
+
+            double bound = Math.min((double) weight / WEIGHT_SCALE, optimalityRatio(goal));
+            publish(goal, bound);
+            if (bound <= 1.0) {
+                return;
+            }
+
+            weight = Math.max(WEIGHT_SCALE, weight - WEIGHT_STEP);
+            reprioritize();
+        }
+    }
+
+    // One weighted A* pass. Returns false when it was cut short by the
+    // deadline or a cancellation.
+    private boolean improvePath(int goalRank) {
+        while (!open.isEmpty() && goalPriority(goalRank) > open.peekPriority()) {
+            if (shouldStop()) {
+                return false;
+            }
+            if (displayOpenList) {
+                visualizeSearchProgress();
+            }
+
+            BoardState current = open.poll();
+            closed.set(index.rank(current));
+            metrics.countExpanded();
+            metrics.observeClosedSize(++closedCount);
+
+            current.expandInto(successors);
+            for (int i = 0; i < successors.size(); i++) {
+                exploredStates++;
+                metrics.countGenerated();
+
+                int packed = successors.stateAt(i);
+                int estimate = heuristic.estimate(packed);
+                if (estimate == Heuristic.DEAD_END) {
+                    continue;
+                }
+
+                int pathCost = current.getPathCost() + successors.costAt(i);
+                int rank = index.rank(packed);
+                BoardState known = reachedAt(rank);
+                if (known != null && known.getPathCost() <= pathCost) {
+                    metrics.countDuplicate();
+                    continue;
+                }
+
+                BoardState node = current.successor(successors, i);
+                node.setPreviousState(current);
+                node.setSequence(exploredStates);
+                reach(rank, node);
+
+                if (closed.get(rank)) {
+                    metrics.countReopening();
+                    inconsistent.set(rank);
+                } else if (open.get(packed) != null) {
+                    open.decreaseKey(node, priority(pathCost, estimate));
+                } else {
+                    open.add(node, priority(pathCost, estimate));
+                }
+            }
+            metrics.observeOpenSize(open.size());
+        }
+        return true;
+    }
+
+    private boolean shouldStop() {
+        if (cancelled || Thread.currentThread().isInterrupted()) {
+            return true;
+        }
+        if (++expansionsSinceClockCheck < CLOCK_CHECK_INTERVAL) {
+            return false;
+        }
+        expansionsSinceClockCheck = 0;
+        return System.nanoTime() - deadline > 0;
+    }
+
+    // With a consistent heuristic the cheapest unweighted f among open and
+    // inconsistent states bounds the optimum from below.
+    private double optimalityRatio(BoardState goal) {
+        long lowest = Long.MAX_VALUE;
+        for (BoardState node : open) {
+            lowest = Math.min(lowest, node.getPathCost() + (long) heuristic.estimate(node.getPackedState()));
+        }
+        for (int rank = inconsistent.nextSetBit(0); rank >= 0; rank = inconsistent.nextSetBit(rank + 1)) {
+            BoardState node = reached[rank];
+            lowest = Math.min(lowest, node.getPathCost() + (long) heuristic.estimate(node.getPackedState()));
+        }
+        if (lowest == Long.MAX_VALUE || lowest >= goal.getPathCost()) {
+            return 1.0;
+        }
+        return lowest <= 0 ? Double.POSITIVE_INFINITY : (double) goal.getPathCost() / lowest;
+    }
+
+    // Moves the inconsistent states back into the open list and reorders
+    // it for the new weight; closed states will be expanded again.
+    private void reprioritize() {
+        IndexedHeap next = new IndexedHeap(index);
+        for (BoardState node : open) {
+            next.add(node, priority(node.getPathCost(), heuristic.estimate(node.getPackedState())));
+        }
+        for (int rank = inconsistent.nextSetBit(0); rank >= 0; rank = inconsistent.nextSetBit(rank + 1)) {
+            BoardState node = reached[rank];
+            if (next.get(node) == null) {
+                next.add(node, priority(node.getPathCost(), heuristic.estimate(node.getPackedState())));
+            }
+        }
+        open = next;
+        inconsistent.clear();
+        closed.clear();
+        closedCount = 0;
+    }
+
+    private int priority(int pathCost, int estimate) {
+        return WEIGHT_SCALE * pathCost + weight * estimate;
+    }
+
+    private int goalPriority(int goalRank) {
+        BoardState goal = reachedAt(goalRank);
+        return goal == null ? Integer.MAX_VALUE : WEIGHT_SCALE * goal.getPathCost();
+    }
+
+    private BoardState reachedAt(int rank) {
+        return rank < reached.length ? reached[rank] : null;
+    }
+
+    private void reach(int rank, BoardState node) {
+        if (rank >= reached.length) {
+            reached = Arrays.copyOf(reached, Math.max(rank + 1, reached.length << 1));
+        }
+        reached[rank] = node;
+    }
+
+    private void publish(BoardState goal, double bound) {
+        metrics.enterPhase(SearchMetrics.Phase.RECONSTRUCTION);
+        Deque<String> moves = new ArrayDeque<>();
+        for (BoardState state = goal; state.getPreviousState() != null; state = state.getPreviousState()) {
+            moves.push(state.getLastMove().toString());
+        }
+        if (best == null || goal.getPathCost() < best.cost()) {
+            best = new Result(String.join("--", moves), goal.getPathCost(), bound);
+        } else {
+            best = new Result(best.path(), best.cost(), Math.min(best.bound(), bound));
+        }
+        metrics.enterPhase(SearchMetrics.Phase.SEARCH);
+
+        if (listener != null) {
+            listener.accept(best);
+        }
+    }
+
+    private void visualizeSearchProgress() {
+        if (traceOpenList(open)) {
+            return;
+        }
+        System.out.println("\nCurrent Search Progress");
+        System.out.println("======================");
+        for (BoardState node : open) {
+            node.displayBoard();
+            System.out.println();
+        }
+        System.out.println("======================");
+    }
+}
@@ -0,0 +1,125 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class BatchRunner {
+    private static final String STANDARD_STREAM = "-";
+    private static final int PENDING_PER_WORKER = 4;
+    private static final int CACHED_SOLUTIONS = 65536;
+
+    private final int workerCount;
+    private final SolutionCache cache = new SolutionCache(CACHED_SOLUTIONS);
+
+    public BatchRunner(int workerCount) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("Worker count must be positive");
+        }
+        this.workerCount = workerCount;
+    }
+
+    // Each input line is "algorithm;start;goal", boards written row by row
+    // with optional commas and '/' between rows for non-square boards.
+    // Blank lines and lines starting with '#' are skipped.
+    public void run(String inputName, String outputName) throws IOException {
+        try (BufferedReader input = openInput(inputName)) {
+            if (STANDARD_STREAM.equals(outputName)) {
+                BufferedWriter output = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+                run(input, output);
+                output.flush();
+            } else {
+                try (BufferedWriter output = new BufferedWriter(
+                        new OutputStreamWriter(new FileOutputStream(outputName), StandardCharsets.UTF_8))) {
+                    run(input, output);
+                }
+            }
+        }
+    }
+
+    public void run(BufferedReader input, BufferedWriter output) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(workerCount);
+        Deque<Future<String>> pending = new ArrayDeque<>();
+        int maxPending = workerCount * PENDING_PER_WORKER;
+        long beginTime = System.nanoTime();
+        int solved = 0;
+
+        try {
+            String line;
+            int recordNumber = 0;
+            while ((line = input.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                int number = ++recordNumber;
+                String record = line;
+                pending.addLast(pool.submit(() -> solveRecord(number, record)));
+
+                while (!pending.isEmpty() && (pending.size() >= maxPending || pending.peekFirst().isDone())) {
+                    writeNext(pending, output);
+                    solved++;
+                }
+            }
+
+            while (!pending.isEmpty()) {
+                writeNext(pending, output);
+                solved++;
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        double totalTime = (System.nanoTime() - beginTime) / 1e9;
+        System.err.printf("Solved %d puzzles in %.3f seconds (%.1f puzzles/s, %d cache hits)%n",
+                solved, totalTime, totalTime > 0 ? solved / totalTime : 0.0, cache.getHits());
+    }
+
+    private void writeNext(Deque<Future<String>> pending, BufferedWriter output) throws IOException {
+        String result;
+        try {
+            result = pending.pollFirst().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a batch result");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch worker failed", e.getCause());
+        }
+        output.write(result);
+        output.newLine();
+    }
+
+    private String solveRecord(int number, String record) {
+        String[] fields = record.split(";");
+        if (fields.length != 3) {
+            return number + "\terror: expected algorithm;start;goal";
+        }
+
+        String algorithm = fields[0].trim();
+        try {
+            BoardState[] boards = BoardState.parsePuzzle(fields[1], fields[2]);
+            BoardState initialBoard = boards[0];
+            BoardState targetBoard = boards[1];
+            GameSolver solver = SolverSelector.createSolver(algorithm, initialBoard, targetBoard, false, cache);
+
+            long beginTime = System.nanoTime();
+            solver.execute();
+            double totalTime = (System.nanoTime() - beginTime) / 1e9;
+
+            return String.join("\t",
+                    String.valueOf(number),
+                    algorithm,
+                    Ex1.describeCost(solver),
+                    String.valueOf(solver.getExploredStates()),
+                    String.valueOf(totalTime),
+                    solver.getSolutionPath().trim());
+        } catch (IllegalArgumentException e) {
+            return number + "\t" + algorithm + "\terror: " + e.getMessage();
+        }
+    }
+
+    private static BufferedReader openInput(String name) throws IOException {
+        InputStream stream = STANDARD_STREAM.equals(name) ? System.in : new FileInputStream(name);
+        return new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+    }
+}
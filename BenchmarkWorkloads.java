@@ -0,0 +1,157 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+// The work measured by the JMH benchmarks under bench/ (mvn -Pjmh). JMH
+// refuses benchmark classes in the default package, and a named package
+// cannot import this tree's classes, so the benchmarks look these
+// suppliers up reflectively once per trial and only call getAsLong while
+// measuring. Each supplier returns a value derived from its work so the
+// JIT cannot discard it.
+public final class BenchmarkWorkloads {
+    // Fixed corpus taken from randomly generated solvable puzzles; the
+    // tiers follow the node counts the misplaced-gems A* needs for them.
+    private static final String[][] CORPUS = {
+            {"easy-1", "GBX_XB_R_", "B_XBX__RG"},
+            {"easy-2", "B___R___X", "_R___B__X"},
+            {"medium-1", "_GBBGB___", "_BBGB__G_"},
+            {"medium-2", "__GB__RBB", "G__BBB__R"},
+            {"hard-1", "R_BG__B__", "___RB__BG"},
+            {"hard-2", "BB_R_G_X_", "__GB__BXR"},
+    };
+
+    private static final String MICRO_START = "R_BG__B__";
+    private static final String MICRO_GOAL = "___RB__BG";
+    private static final int SAMPLE_SIZE = 256;
+
+    private BenchmarkWorkloads() {
+    }
+
+    // One full solve of a corpus puzzle, returning the explored state count.
+    public static LongSupplier solver(String algorithm, String puzzle) {
+        for (String[] entry : CORPUS) {
+            if (entry[0].equals(puzzle)) {
+                BoardState initial = new BoardState(entry[1]);
+                BoardState target = new BoardState(entry[2]);
+                return () -> {
+                    GameSolver solver = createSolver(algorithm, initial, target);
+                    solver.execute();
+                    return solver.getExploredStates();
+                };
+            }
+        }
+        throw new IllegalArgumentException("Unknown puzzle: " + puzzle);
+    }
+
+    private static GameSolver createSolver(String algorithm, BoardState initial, BoardState target) {
+        return algorithm.equals("DFID")
+                ? new DFIDSolver(initial, target, false)
+                : SolverSelector.createSolver(algorithm, initial, target, false);
+    }
+
+    // A core data-structure operation applied to a fixed sample of states.
+    public static LongSupplier operation(String name) {
+        BoardState target = new BoardState(MICRO_GOAL);
+        BoardState[] states = sampleStates(new BoardState(MICRO_START), SAMPLE_SIZE);
+        BoardState[] copies = sampleStates(new BoardState(MICRO_START), SAMPLE_SIZE);
+        Heuristic misplaced = Heuristic.misplacedGems(target);
+        SuccessorBuffer buffer = new SuccessorBuffer();
+
+        return switch (name) {
+            case "hashCode" -> () -> {
+                long total = 0;
+                for (BoardState state : states) {
+                    total += state.hashCode();
+                }
+                return total;
+            };
+            case "equals" -> () -> {
+                long equal = 0;
+                for (int i = 0; i < states.length; i++) {
+                    if (states[i].equals(copies[i])) equal++;
+                    if (states[i].equals(copies[(i + 1) % copies.length])) equal++;
+                }
+                return equal;
+            };
+            case "successorsIterable" -> () -> {
+                long total = 0;
+                for (BoardState state : states) {
+                    for (BoardState successor : state) {
+                        total += successor.getPathCost();
+                    }
+                }
+                return total;
+            };
+            case "successorsBuffer" -> () -> {
+                long total = 0;
+                for (BoardState state : states) {
+                    state.expandInto(buffer);
+                    for (int i = 0; i < buffer.size(); i++) {
+                        total += buffer.costAt(i);
+                    }
+                }
+                return total;
+            };
+            // What A* does per successor: allocate it and store its estimate.
+            case "freshSuccessorEstimate" -> () -> {
+                long total = 0;
+                for (BoardState state : states) {
+                    int parentEstimate = misplaced.estimate(state.getPackedState());
+                    state.expandInto(buffer);
+                    for (int i = 0; i < buffer.size(); i++) {
+                        BoardState successor = state.successor(buffer, i);
+                        successor.setHeuristicEstimate(
+                                misplaced.estimateAfterMove(parentEstimate, buffer.moveAt(i), buffer.stateAt(i)));
+                        total += successor.getHeuristicEstimate();
+                    }
+                }
+                return total;
+            };
+            case "misplacedGems" -> () -> {
+                long total = 0;
+                for (BoardState state : states) {
+                    total += misplaced.estimate(state.getPackedState());
+                }
+                return total;
+            };
+            case "misplacedGemsFull" -> () -> {
+                long total = 0;
+                for (BoardState state : states) {
+                    state.expandInto(buffer);
+                    for (int i = 0; i < buffer.size(); i++) {
+                        total += misplaced.estimate(buffer.stateAt(i));
+                    }
+                }
+                return total;
+            };
+            case "misplacedGemsDelta" -> () -> {
+                long total = 0;
+                for (BoardState state : states) {
+                    int parentEstimate = misplaced.estimate(state.getPackedState());
+                    state.expandInto(buffer);
+                    for (int i = 0; i < buffer.size(); i++) {
+                        total += misplaced.estimateAfterMove(parentEstimate, buffer.moveAt(i), buffer.stateAt(i));
+                    }
+                }
+                return total;
+            };
+            default -> throw new IllegalArgumentException("Unknown operation: " + name);
+        };
+    }
+
+    // Breadth-first sample of states reachable from the root.
+    private static BoardState[] sampleStates(BoardState root, int count) {
+        List<BoardState> sample = new ArrayList<>();
+        PackedStateSet seen = new PackedStateSet();
+        sample.add(root);
+        seen.add(root);
+        for (int i = 0; i < sample.size() && sample.size() < count; i++) {
+            for (BoardState successor : sample.get(i)) {
+                if (seen.add(successor) && sample.size() < count) {
+                    sample.add(successor);
+                }
+            }
+        }
+        return sample.toArray(new BoardState[0]);
+    }
+}
@@ -0,0 +1,192 @@
+import java.util.*;
+
+public class BidirectionalSolver extends GameSolver {
+    private static final int INFINITY = Integer.MAX_VALUE;
+    private static final int MIN_MOVE_COST = 1;
+
+    private Frontier forward;
+    private Frontier backward;
+    private int bestCost = INFINITY;
+    private BoardState forwardMeeting;
+    private BoardState backwardMeeting;
+
+    public BidirectionalSolver(BoardState initial, BoardState target, boolean showOpenList) {
+        super(initial, target, showOpenList);
+    }
+
+    private static class Frontier {
+        final OpenList open;
+        final BitSet closed;
+        BoardState[] reached;
+
+        Frontier(StateIndex index) {
+            open = new BucketQueue(index, BucketQueue.TieBreak.FIFO);
+            closed = new BitSet(index.size());
+            reached = new BoardState[Math.max(1, index.size())];
+        }
+
+        BoardState reachedAt(int rank) {
+            return rank < reached.length ? reached[rank] : null;
+        }
+
+        void reach(int rank, BoardState state) {
+            if (rank >= reached.length) {
+                reached = Arrays.copyOf(reached, Math.max(rank + 1, reached.length << 1));
+            }
+            reached[rank] = state;
+        }
+    }
+
+    @Override
+    protected void search() {
+        if (!validatePuzzle()) {
+            solutionPath.append("no path\n");
+            return;
+        }
+
+        if (initialState.equals(targetState)) {
+            solutionPath.append("start is the goal\n");
+            totalCost = 0;
+            return;
+        }
+
+        performSearch();
+
+        if (bestCost == INFINITY) {
+            solutionPath.append("no path\n");
+        } else {
+            totalCost = bestCost;
+            reconstructSolution();
+        }
+    }
+
+    // MM0 (meet in the middle with h = 0): always expand the side whose
+    // cheapest open node is lower, and stop once no pair of open nodes can
+    // still beat the best meeting found so far.
+    private void performSearch() {
+        StateIndex index = getStateIndex();
+        forward = new Frontier(index);
+        backward = new Frontier(index);
+        exploredStates = 0;
+
+        forward.open.add(initialState, 0);
+        forward.reach(index.rank(initialState), initialState);
+        backward.open.add(targetState, 0);
+        backward.reach(index.rank(targetState), targetState);
+
+        while (!forward.open.isEmpty() && !backward.open.isEmpty()) {
+            if (displayOpenList) {
+                displayFrontiers();
+            }
+
+            int forwardMin = forward.open.peekPriority();
+            int backwardMin = backward.open.peekPriority();
+            int lowerBound = Math.max(2 * Math.min(forwardMin, backwardMin),
+                    forwardMin + backwardMin + MIN_MOVE_COST);
+            if (bestCost <= lowerBound) {
+                return;
+            }
+
+            if (forwardMin <= backwardMin) {
+                expand(forward, backward, true);
+            } else {
+                expand(backward, forward, false);
+            }
+        }
+    }
+
+    private void expand(Frontier side, Frontier opposite, boolean isForward) {
+        StateIndex index = getStateIndex();
+        BoardState current = side.open.poll();
+        side.closed.set(index.rank(current));
+        metrics.countExpanded();
+        metrics.observeOpenSize(forward.open.size() + backward.open.size());
+
+        for (BoardState successor : current) {
+            exploredStates++;
+            metrics.countGenerated();
+            int rank = index.rank(successor);
+            if (side.closed.get(rank)) {
+                metrics.countDuplicate();
+                continue;
+            }
+
+            BoardState existing = side.open.get(successor);
+            if (existing == null) {
+                side.open.add(successor, successor.getPathCost());
+            } else if (successor.getPathCost() < existing.getPathCost()) {
+                metrics.countReopening();
+                side.open.decreaseKey(successor, successor.getPathCost());
+            } else {
+                metrics.countDuplicate();
+                continue;
+            }
+
+            successor.setPreviousState(current);
+            side.reach(rank, successor);
+            recordMeeting(successor, opposite.reachedAt(rank), isForward);
+        }
+    }
+
+    private void recordMeeting(BoardState reached, BoardState counterpart, boolean isForward) {
+        if (counterpart == null) {
+            return;
+        }
+
+        int cost = reached.getPathCost() + counterpart.getPathCost();
+        if (cost < bestCost) {
+            bestCost = cost;
+            forwardMeeting = isForward ? reached : counterpart;
+            backwardMeeting = isForward ? counterpart : reached;
+        }
+    }
+
+    private void reconstructSolution() {
+        metrics.enterPhase(SearchMetrics.Phase.RECONSTRUCTION);
+        Deque<Move> moves = new ArrayDeque<>();
+        for (BoardState state = forwardMeeting; state.getPreviousState() != null; state = state.getPreviousState()) {
+            moves.push(state.getLastMove());
+        }
+
+        List<Move> path = new ArrayList<>(moves);
+        for (BoardState state = backwardMeeting; state.getPreviousState() != null; state = state.getPreviousState()) {
+            path.add(state.getLastMove().reverse());
+        }
+
+        for (int i = 0; i < path.size(); i++) {
+            solutionPath.append(path.get(i).toString());
+            solutionPath.append(i + 1 < path.size() ? "--" : "\n");
+        }
+    }
+
+    private void displayFrontiers() {
+        if (isTracing()) {
+            SearchTrace.Sample sample = sampleOpenList();
+            if (sample != null) {
+                for (BoardState state : forward.open) {
+                    sample.add(state.getPackedState());
+                }
+                sample.submit(0);
+                for (BoardState state : backward.open) {
+                    sample.add(state.getPackedState());
+                }
+                sample.submit(1);
+            }
+            return;
+        }
+        System.out.println("\nForward Open List:");
+        System.out.println("------------------------");
+        displayOpenList(forward.open);
+        System.out.println("Backward Open List:");
+        System.out.println("------------------------");
+        displayOpenList(backward.open);
+        System.out.println("------------------------");
+    }
+
+    private void displayOpenList(OpenList open) {
+        for (BoardState state : open) {
+            state.displayBoard();
+            System.out.println();
+        }
+    }
+}
@@ -0,0 +1,404 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Shape of a toroidal board. The 3x3 board keeps its states as the packed
+// int used throughout the solvers. Any other shape stores each state once
+// in an arena of bit-packed longs and hands out a dense int id for it, so
+// sets, open lists and heuristics keyed by int work unchanged.
+//
+// The arena is split into chunks that never move, and a state's words are
+// never changed while its id is in use, so reading a state needs
+// no lock: whoever holds an id got it from intern or from a thread that
+// did. Looking a state up is lock-free as well; only adding a new state
+// takes the lock. Interned states are kept until a solver releases them,
+// and only SMA* does, so the table otherwise grows with every distinct
+// state a search generates. Depth-first searches such as IDA* and DFID
+// therefore need memory for all the states they have seen on a board
+// other than 3x3, not just for the current path.
+public final class BoardGeometry {
+    private static final int EMPTY = 0;
+    private static final int WALL = 1;
+    private static final int CELL_BITS = 3;
+    private static final int CELL_MASK = (1 << CELL_BITS) - 1;
+    private static final int CELLS_PER_WORD = Long.SIZE / CELL_BITS;
+    private static final int MAX_CELLS = 1 << 12;
+    private static final int[] GEM_COSTS = {0, 0, 3, 10, 1};
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_STATES = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_STATES - 1;
+    private static final int INITIAL_SLOTS = CHUNK_STATES * 2;
+
+    public static final BoardGeometry STANDARD = new BoardGeometry(3, 3);
+
+    private final int rows;
+    private final int columns;
+    private final int cellCount;
+    private final int[][] neighbours;
+
+    // Interned states, only used by non-standard shapes. Slots hold a
+    // state id plus one, so zero marks a free slot.
+    private final int wordsPerState;
+    private final long[][] zobrist;
+    private volatile long[][] wordChunks;
+    private volatile long[][] hashChunks;
+    private volatile AtomicIntegerArray table;
+    private int stateCount;
+    private int liveStates;
+    private int[] releasedIds = new int[0];
+    private int releasedCount;
+
+    private BoardGeometry(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        this.cellCount = rows * columns;
+        this.neighbours = buildNeighbours();
+        this.wordsPerState = (cellCount + CELLS_PER_WORD - 1) / CELLS_PER_WORD;
+        boolean interned = rows != 3 || columns != 3;
+        this.zobrist = interned ? buildZobristKeys() : null;
+        this.wordChunks = interned ? new long[1][] : null;
+        this.hashChunks = interned ? new long[1][] : null;
+        this.table = interned ? new AtomicIntegerArray(INITIAL_SLOTS) : null;
+    }
+
+    // Each call for a non-standard shape returns a fresh geometry with its
+    // own state table; boards of one puzzle must share the same instance.
+    public static BoardGeometry of(int rows, int columns) {
+        if (rows < 1 || columns < 1 || rows * columns > MAX_CELLS) {
+            throw new IllegalArgumentException("Unsupported board size " + rows + "x" + columns);
+        }
+        return rows == 3 && columns == 3 ? STANDARD : new BoardGeometry(rows, columns);
+    }
+
+    public boolean isStandard() {
+        return this == STANDARD;
+    }
+
+    // Tables such as pattern databases enumerate the 3x3 state space directly.
+    public static void requireStandard(BoardState board, String feature) {
+        if (!board.getGeometry().isStandard()) {
+            throw new IllegalArgumentException(feature + " only supports 3x3 boards");
+        }
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    public int neighbourOf(int cell, int direction) {
+        return neighbours[cell][direction];
+    }
+
+    public int cellOf(int state, int index) {
+        if (isStandard()) {
+            return BoardState.cellOf(state, index);
+        }
+        return cellOf(wordsOf(state), offsetOf(state), index);
+    }
+
+    // Sum of the costs of the gems not yet on their target cell.
+    public int misplacedCost(int state, int targetState) {
+        if (isStandard()) {
+            int total = 0;
+            for (int index = 0; index < cellCount; index++) {
+                int cell = BoardState.cellOf(state, index);
+                if (cell != BoardState.cellOf(targetState, index)) {
+                    total += GEM_COSTS[cell];
+                }
+            }
+            return total;
+        }
+
+        long[] words = wordsOf(state);
+        long[] targetWords = wordsOf(targetState);
+        int base = offsetOf(state);
+        int targetBase = offsetOf(targetState);
+        int total = 0;
+        for (int word = 0; word < wordsPerState; word++) {
+            if (words[base + word] == targetWords[targetBase + word]) {
+                continue;
+            }
+            int last = Math.min(cellCount, (word + 1) * CELLS_PER_WORD);
+            for (int index = word * CELLS_PER_WORD; index < last; index++) {
+                int cell = cellOf(words, base, index);
+                if (cell != cellOf(targetWords, targetBase, index)) {
+                    total += GEM_COSTS[cell];
+                }
+            }
+        }
+        return total;
+    }
+
+    // One more than the highest id handed out so far. Released ids are
+    // handed out again before new ones.
+    public synchronized int internedStates() {
+        return stateCount;
+    }
+
+    // Drops a state so its id can be reused; false if it is not interned.
+    // Only a solver that owns every board of this geometry may release a
+    // state, once nothing refers to it any more, including queued trace
+    // snapshots and heuristic caches.
+    synchronized boolean release(int state) {
+        AtomicIntegerArray slots = table;
+        int mask = slots.length() - 1;
+        int slot = home(hashOf(state)) & mask;
+        int entry;
+        while ((entry = slots.get(slot)) != state + 1) {
+            if (entry == 0) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        // Backward-shift deletion, as in PackedStateSet.
+        int gap = slot;
+        while (true) {
+            slot = (slot + 1) & mask;
+            entry = slots.get(slot);
+            if (entry == 0) {
+                break;
+            }
+            int home = home(hashOf(entry - 1)) & mask;
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                slots.set(gap, entry);
+                gap = slot;
+            }
+        }
+        slots.set(gap, 0);
+
+        if (releasedCount == releasedIds.length) {
+            releasedIds = Arrays.copyOf(releasedIds, Math.max(16, releasedCount << 1));
+        }
+        releasedIds[releasedCount++] = state;
+        liveStates--;
+        return true;
+    }
+
+    int encode(int[] cells) {
+        if (isStandard()) {
+            int packed = 0;
+            for (int index = 0; index < cellCount; index++) {
+                packed = BoardState.withCell(packed, index, cells[index]);
+            }
+            return packed;
+        }
+
+        long[] scratch = new long[wordsPerState];
+        long hash = 0;
+        for (int index = 0; index < cellCount; index++) {
+            setCell(scratch, 0, index, cells[index]);
+            hash ^= zobrist[index][cells[index]];
+        }
+        return intern(hash, scratch);
+    }
+
+    // Non-standard counterpart of BoardState.expand: copies the parent's
+    // words once per successor and updates its hash with two key flips.
+    void expand(int state, int excludedMove, SuccessorBuffer buffer) {
+        buffer.clear();
+        long[] words = wordsOf(state);
+        int base = offsetOf(state);
+        long stateHash = hashOf(state);
+        long[] scratch = new long[wordsPerState];
+        for (int cell = 0; cell < cellCount; cell++) {
+            int gem = cellOf(words, base, cell);
+            if (gem <= WALL) {
+                continue;
+            }
+
+            for (int direction = 0; direction < 4; direction++) {
+                int neighbour = neighbours[cell][direction];
+                if (cellOf(words, base, neighbour) != EMPTY) {
+                    continue;
+                }
+
+                int move = Move.pack(cell, neighbour, gem);
+                if (move == excludedMove) {
+                    continue;
+                }
+
+                System.arraycopy(words, base, scratch, 0, wordsPerState);
+                setCell(scratch, 0, cell, EMPTY);
+                setCell(scratch, 0, neighbour, gem);
+                long hash = stateHash ^ zobrist[cell][gem] ^ zobrist[neighbour][gem];
+                buffer.add(move, intern(hash, scratch), GEM_COSTS[gem]);
+            }
+        }
+    }
+
+    // The state after moving a gem, for walking a recorded path backwards.
+    public int applyMove(int state, int packedMove) {
+        int source = Move.sourceOf(packedMove);
+        int target = Move.targetOf(packedMove);
+        int gem = Move.gemOf(packedMove);
+        if (isStandard()) {
+            return BoardState.withCell(BoardState.withCell(state, source, EMPTY), target, gem);
+        }
+
+        long[] scratch = new long[wordsPerState];
+        System.arraycopy(wordsOf(state), offsetOf(state), scratch, 0, wordsPerState);
+        setCell(scratch, 0, source, EMPTY);
+        setCell(scratch, 0, target, gem);
+        return intern(hashOf(state) ^ zobrist[source][gem] ^ zobrist[target][gem], scratch);
+    }
+
+    public void display(int state) {
+        for (int row = 0; row < rows; row++) {
+            System.out.print("[");
+            for (int col = 0; col < columns; col++) {
+                System.out.print(BoardState.symbolOf(cellOf(state, row * columns + col)) +
+                        (col < columns - 1 ? "," : "]"));
+            }
+            System.out.println();
+        }
+    }
+
+    private long[] wordsOf(int state) {
+        return wordChunks[state >>> CHUNK_SHIFT];
+    }
+
+    private int offsetOf(int state) {
+        return (state & CHUNK_MASK) * wordsPerState;
+    }
+
+    private long hashOf(int state) {
+        return hashChunks[state >>> CHUNK_SHIFT][state & CHUNK_MASK];
+    }
+
+    // A miss on the lock-free probe is confirmed under the lock, since the
+    // state may have been added or the table replaced in the meantime.
+    private int intern(long hash, long[] cells) {
+        int known = find(table, hash, cells);
+        if (known >= 0) {
+            return known;
+        }
+        synchronized (this) {
+            return insert(hash, cells);
+        }
+    }
+
+    private int find(AtomicIntegerArray slots, long hash, long[] cells) {
+        int mask = slots.length() - 1;
+        int slot = home(hash) & mask;
+        int entry;
+        while ((entry = slots.get(slot)) != 0) {
+            int candidate = entry - 1;
+            if (hashOf(candidate) == hash && Arrays.equals(wordsOf(candidate), offsetOf(candidate),
+                    offsetOf(candidate) + wordsPerState, cells, 0, wordsPerState)) {
+                return candidate;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    // The state's words and hash are stored before its slot is set, and
+    // the slot is a volatile write, so a lock-free reader that finds the
+    // slot also sees the state.
+    private int insert(long hash, long[] cells) {
+        AtomicIntegerArray slots = table;
+        int known = find(slots, hash, cells);
+        if (known >= 0) {
+            return known;
+        }
+
+        int id = releasedCount > 0 ? releasedIds[--releasedCount] : stateCount++;
+        store(id, hash, cells);
+        int mask = slots.length() - 1;
+        int slot = home(hash) & mask;
+        while (slots.get(slot) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots.set(slot, id + 1);
+        if (++liveStates > (slots.length() >> 1)) {
+            rehash(slots);
+        }
+        return id;
+    }
+
+    private void store(int id, long hash, long[] cells) {
+        int chunk = id >>> CHUNK_SHIFT;
+        long[][] words = wordChunks;
+        long[][] hashes = hashChunks;
+        if (chunk == words.length) {
+            words = Arrays.copyOf(words, chunk << 1);
+            hashes = Arrays.copyOf(hashes, chunk << 1);
+        }
+        if (words[chunk] == null) {
+            words[chunk] = new long[CHUNK_STATES * wordsPerState];
+            hashes[chunk] = new long[CHUNK_STATES];
+        }
+        System.arraycopy(cells, 0, words[chunk], offsetOf(id), wordsPerState);
+        hashes[chunk][id & CHUNK_MASK] = hash;
+        wordChunks = words;
+        hashChunks = hashes;
+    }
+
+    // Readers still probing the old table may miss new states and fall back
+    // to the lock; the old table itself is never changed again.
+    private void rehash(AtomicIntegerArray slots) {
+        AtomicIntegerArray grown = new AtomicIntegerArray(slots.length() << 1);
+        int mask = grown.length() - 1;
+        for (int old = 0; old < slots.length(); old++) {
+            int entry = slots.get(old);
+            if (entry == 0) {
+                continue;
+            }
+            int slot = home(hashOf(entry - 1)) & mask;
+            while (grown.get(slot) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            grown.set(slot, entry);
+        }
+        table = grown;
+    }
+
+    private static int home(long hash) {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static int cellOf(long[] source, int base, int index) {
+        long word = source[base + index / CELLS_PER_WORD];
+        return (int) (word >>> (CELL_BITS * (index % CELLS_PER_WORD))) & CELL_MASK;
+    }
+
+    private static void setCell(long[] target, int base, int index, int value) {
+        int shift = CELL_BITS * (index % CELLS_PER_WORD);
+        int word = base + index / CELLS_PER_WORD;
+        target[word] = (target[word] & ~((long) CELL_MASK << shift)) | ((long) value << shift);
+    }
+
+    private int[][] buildNeighbours() {
+        int[][] result = new int[cellCount][4];
+        for (int cell = 0; cell < cellCount; cell++) {
+            int row = cell / columns;
+            int col = cell % columns;
+            result[cell][0] = row * columns + (col + columns - 1) % columns;
+            result[cell][1] = row * columns + (col + 1) % columns;
+            result[cell][2] = ((row + rows - 1) % rows) * columns + col;
+            result[cell][3] = ((row + 1) % rows) * columns + col;
+        }
+        return result;
+    }
+
+    // Empty cells hash to zero so a move only flips the keys of its gem.
+    private long[][] buildZobristKeys() {
+        SplittableRandom random = new SplittableRandom(0x5EEDL ^ ((long) rows << 32) ^ columns);
+        long[][] keys = new long[cellCount][GEM_COSTS.length];
+        for (int cell = 0; cell < cellCount; cell++) {
+            for (int value = WALL; value < GEM_COSTS.length; value++) {
+                keys[cell][value] = random.nextLong();
+            }
+        }
+        return keys;
+    }
+}
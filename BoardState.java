@@ -6,20 +6,44 @@ public class BoardState implements Iterable<BoardState> {
     private static final int EMERALD = 2;
     private static final int RUBY = 3;
     private static final int SAPPHIRE = 4;
-
-    private final int[][] board = new int[3][3];
-    private Move previousMove = null;
+    private static final int CELL_BITS = 3;
+    private static final int CELL_MASK = (1 << CELL_BITS) - 1;
+    private static final int[][] NEIGHBOURS = buildNeighbourTable();
+    private static final int[] GEM_COSTS = {0, 0, 3, 10, 1};
+
+    private final BoardGeometry geometry;
+    private int packedState;
+    private int previousMove = Move.NONE;
     private BoardState parentState = null;
     private int pathCost;
-    private int estimatedCost = -1;
+    private int heuristicEstimate = -1;
     private int sequence;
-    public boolean marked = false;
 
     public BoardState(String boardStr) {
         validateInput(boardStr);
+        geometry = BoardGeometry.STANDARD;
         initializeBoard(boardStr);
     }
 
+    public BoardState(BoardGeometry geometry, String cells) {
+        if (cells.length() != geometry.getCellCount()) {
+            throw new IllegalArgumentException("Invalid board string length");
+        }
+        this.geometry = geometry;
+        int[] values = new int[cells.length()];
+        for (int index = 0; index < values.length; index++) {
+            values[index] = convertSymbolToValue(cells.charAt(index));
+        }
+        packedState = geometry.encode(values);
+    }
+
+    private BoardState(BoardGeometry geometry, int packed, int moveApplied, int cost) {
+        this.geometry = geometry;
+        packedState = packed;
+        previousMove = moveApplied;
+        pathCost = cost;
+    }
+
     private void validateInput(String boardStr) {
         if (boardStr.length() != 9) {
             throw new IllegalArgumentException("Invalid board string length");
@@ -27,80 +51,140 @@ public class BoardState implements Iterable<BoardState> {
     }
 
     private void initializeBoard(String boardStr) {
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
-                board[row][col] = convertSymbolToValue(boardStr.charAt(row * 3 + col));
-            }
+        for (int index = 0; index < 9; index++) {
+            packedState = withCell(packedState, index, convertSymbolToValue(boardStr.charAt(index)));
         }
     }
 
+    public static int cellOf(int packed, int index) {
+        return (packed >>> (CELL_BITS * index)) & CELL_MASK;
+    }
 
+    public static int neighbourOf(int cell, int direction) {
+        return NEIGHBOURS[cell][direction];
+    }
 
-    public int estimateCost(BoardState target) {
-        if (estimatedCost >= 0) return estimatedCost;
-
-        int total = 0;
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
-                if (board[row][col] != target.board[row][col]) {
-                    total += getGemValue(board[row][col]);
-                }
-            }
+    private static int[][] buildNeighbourTable() {
+        int[][] table = new int[9][4];
+        for (int cell = 0; cell < 9; cell++) {
+            int row = cell / 3;
+            int col = cell % 3;
+            table[cell][0] = row * 3 + (col + 2) % 3;
+            table[cell][1] = row * 3 + (col + 1) % 3;
+            table[cell][2] = ((row + 2) % 3) * 3 + col;
+            table[cell][3] = ((row + 1) % 3) * 3 + col;
         }
-        estimatedCost = total;
-        return total;
+        return table;
     }
 
-    private void executeMove(Move move) {
-        int[] src = move.getSource();
-        int[] tgt = move.getTarget();
-        board[src[0]][src[1]] = EMPTY;
-        board[tgt[0]][tgt[1]] = move.getGemType();
+    public static int withCell(int packed, int index, int value) {
+        int shift = CELL_BITS * index;
+        return (packed & ~(CELL_MASK << shift)) | (value << shift);
     }
 
-    private BoardState(int[][] sourceBoard, Move moveApplied) {
-        duplicateBoard(sourceBoard);
-        previousMove = moveApplied;
-        executeMove(moveApplied);
-    }
+    // Parses a start and goal board that share one geometry. Rows are
+    // separated by '/' and cells may be separated by commas; without any '/'
+    // the board must be square, e.g. nine symbols for the classic 3x3 game.
+    public static BoardState[] parsePuzzle(String start, String goal) {
+        String[] startRows = splitRows(start);
+        String[] goalRows = splitRows(goal);
+        int columns = startRows[0].length();
+        if (startRows.length != goalRows.length || goalRows[0].length() != columns) {
+            throw new IllegalArgumentException("Start and goal boards have different sizes");
+        }
 
-    private int getGemValue(int gemType) {
-        return switch (gemType) {
-            case EMERALD -> 3;
-            case RUBY -> 10;
-            case SAPPHIRE -> 1;
-            default -> 0;
+        BoardGeometry geometry = BoardGeometry.of(startRows.length, columns);
+        return new BoardState[]{
+                new BoardState(geometry, joinRows(startRows, columns)),
+                new BoardState(geometry, joinRows(goalRows, columns))
         };
     }
 
-    public int getPathCost() {
-        return pathCost;
+    private static String[] splitRows(String text) {
+        String cells = text.replace(",", "").trim();
+        if (cells.indexOf('/') >= 0) {
+            return cells.split("/");
+        }
+
+        int side = (int) Math.round(Math.sqrt(cells.length()));
+        if (side == 0 || side * side != cells.length()) {
+            throw new IllegalArgumentException("Invalid board string length");
+        }
+        String[] rows = new String[side];
+        for (int row = 0; row < side; row++) {
+            rows[row] = cells.substring(row * side, (row + 1) * side);
+        }
+        return rows;
     }
 
-    public int getTotalCost(BoardState target) {
-        return estimateCost(target) + getPathCost();
+    private static String joinRows(String[] rows, int columns) {
+        for (String row : rows) {
+            if (row.length() != columns) {
+                throw new IllegalArgumentException("Board rows must all have the same length");
+            }
+        }
+        return String.join("", rows);
     }
 
-    public void displayBoard() {
-        for (int row = 0; row < 3; row++) {
-            System.out.print("[");
-            for (int col = 0; col < 3; col++) {
-                System.out.print(convertValueToSymbol(board[row][col]) +
-                        (col < 2 ? "," : "]"));
+    // Writes every successor of the packed state into the buffer, skipping
+    // the excluded move (normally the reverse of the move that led here).
+    public static void expand(int packed, int excludedMove, SuccessorBuffer buffer) {
+        buffer.clear();
+        for (int cell = 0; cell < 9; cell++) {
+            int gem = cellOf(packed, cell);
+            if (gem <= WALL) {
+                continue;
+            }
+
+            int vacated = packed & ~(CELL_MASK << (CELL_BITS * cell));
+            for (int direction = 0; direction < 4; direction++) {
+                int neighbour = NEIGHBOURS[cell][direction];
+                if (cellOf(packed, neighbour) != EMPTY) {
+                    continue;
+                }
+
+                int move = Move.pack(cell, neighbour, gem);
+                if (move != excludedMove) {
+                    buffer.add(move, vacated | (gem << (CELL_BITS * neighbour)), GEM_COSTS[gem]);
+                }
             }
-            System.out.println();
         }
     }
 
-    private void duplicateBoard(int[][] source) {
-        for (int i = 0; i < 3; i++) {
-            System.arraycopy(source[i], 0, board[i], 0, 3);
+    public void expandInto(SuccessorBuffer buffer) {
+        int excluded = previousMove == Move.NONE ? Move.NONE : Move.reverseOf(previousMove);
+        if (geometry.isStandard()) {
+            expand(packedState, excluded, buffer);
+        } else {
+            geometry.expand(packedState, excluded, buffer);
         }
     }
 
+    public BoardState successor(SuccessorBuffer buffer, int i) {
+        return new BoardState(geometry, buffer.stateAt(i), buffer.moveAt(i), pathCost + buffer.costAt(i));
+    }
+
+    public BoardGeometry getGeometry() {
+        return geometry;
+    }
+
+    public static int getGemValue(int gemType) {
+        return gemType >= 0 && gemType < GEM_COSTS.length ? GEM_COSTS[gemType] : 0;
+    }
+
+    public int getPathCost() {
+        return pathCost;
+    }
+
+    public void displayBoard() {
+        geometry.display(packedState);
+    }
 
+    static char symbolOf(int value) {
+        return convertValueToSymbol(value);
+    }
 
-    private int convertSymbolToValue(char symbol) {
+    private static int convertSymbolToValue(char symbol) {
         return switch (symbol) {
             case 'R' -> RUBY;
             case 'B' -> SAPPHIRE;
@@ -111,7 +195,7 @@ public class BoardState implements Iterable<BoardState> {
         };
     }
 
-    private char convertValueToSymbol(int value) {
+    private static char convertValueToSymbol(int value) {
         return switch (value) {
             case RUBY -> 'R';
             case SAPPHIRE -> 'B';
@@ -126,30 +210,33 @@ public class BoardState implements Iterable<BoardState> {
     public boolean equals(Object obj) {
         if (this == obj) return true;
         if (!(obj instanceof BoardState other)) return false;
-
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (this.board[i][j] != other.board[i][j]) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        return packedState == other.packedState && geometry == other.geometry;
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(board);
+        return packedState;
+    }
+
+    public int getPackedState() {
+        return packedState;
     }
 
     // Getters and setters with renamed methods
     public int[][] getBoardMatrix() {
-        int[][] copy = new int[3][3];
-        duplicateBoard(this.board, copy);
-        return copy;
+        int columns = geometry.getColumns();
+        int[][] matrix = new int[geometry.getRows()][columns];
+        for (int index = 0; index < geometry.getCellCount(); index++) {
+            matrix[index / columns][index % columns] = geometry.cellOf(packedState, index);
+        }
+        return matrix;
     }
 
     public Move getLastMove() {
+        return previousMove == Move.NONE ? null : Move.unpack(previousMove, geometry.getColumns());
+    }
+
+    public int getLastPackedMove() {
         return previousMove;
     }
 
@@ -161,6 +248,16 @@ public class BoardState implements Iterable<BoardState> {
         this.parentState = parent;
     }
 
+    // The estimate a solver's heuristic gave this state, kept so that its
+    // successors can be estimated incrementally.
+    public int getHeuristicEstimate() {
+        return heuristicEstimate;
+    }
+
+    public void setHeuristicEstimate(int estimate) {
+        this.heuristicEstimate = estimate;
+    }
+
     public void setSequence(int seq) {
         this.sequence = seq;
     }
@@ -169,30 +266,22 @@ public class BoardState implements Iterable<BoardState> {
         return sequence;
     }
 
-    private void duplicateBoard(int[][] src, int[][] dst) {
-        for (int i = 0; i < 3; i++) {
-            System.arraycopy(src[i], 0, dst[i], 0, 3);
-        }
-    }
-
     @Override
     public Iterator<BoardState> iterator() {
         return new BoardStateIterator();
     }
 
     private class BoardStateIterator implements Iterator<BoardState> {
-        private int row = 0;
-        private int col = 0;
-        private int direction = 0;
-        private BoardState nextState = null;
-        private boolean nextFound = false;
+        private final SuccessorBuffer successors = new SuccessorBuffer();
+        private int position = 0;
+
+        BoardStateIterator() {
+            expandInto(successors);
+        }
 
         @Override
         public boolean hasNext() {
-            if (!nextFound) {
-                findNextState();
-            }
-            return nextFound;
+            return position < successors.size();
         }
 
         @Override
@@ -200,50 +289,7 @@ public class BoardState implements Iterable<BoardState> {
             if (!hasNext()) {
                 throw new NoSuchElementException();
             }
-            nextFound = false;
-            return nextState;
-        }
-
-        private void findNextState() {
-            while (row < 3) {
-                if (board[row][col] > 1) {
-                    while (direction < 4) {
-                        int[] adjacentCell = findAdjacentCell(row, col, direction);
-                        if (adjacentCell != null && board[adjacentCell[0]][adjacentCell[1]] == EMPTY) {
-                            Move potentialMove = new Move(row, col, adjacentCell[0], adjacentCell[1], board[row][col]);
-                            if (previousMove == null || !previousMove.isReverse(potentialMove)) {
-                                nextState = new BoardState(board, potentialMove);
-                                nextState.pathCost = pathCost + potentialMove.getCost();
-                                direction++;
-                                nextFound = true;
-                                return;
-                            }
-                        }
-                        direction++;
-                    }
-                }
-                moveToNextPosition();
-            }
-            nextState = null;
-            nextFound = false;
-        }
-
-        private void moveToNextPosition() {
-            direction = 0;
-            col = (col + 1) % 3;
-            if (col == 0) {
-                row++;
-            }
-        }
-
-        private int[] findAdjacentCell(int x, int y, int dir) {
-            return switch (dir) {
-                case 0 -> new int[]{x, (y + 2) % 3};
-                case 1 -> new int[]{x, (y + 1) % 3};
-                case 2 -> new int[]{(x + 2) % 3, y};
-                case 3 -> new int[]{(x + 1) % 3, y};
-                default -> null;
-            };
+            return successor(successors, position++);
         }
     }
 }
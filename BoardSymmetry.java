@@ -0,0 +1,67 @@
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+public final class BoardSymmetry {
+    // Every automorphism of the 3x3 torus: an optional transpose followed by
+    // an independent reflection and rotation of the rows and of the columns.
+    private static final int[][] PERMUTATIONS = buildPermutations();
+
+    private BoardSymmetry() {
+    }
+
+    public static int count() {
+        return PERMUTATIONS.length;
+    }
+
+    public static int mapCell(int symmetry, int cell) {
+        return PERMUTATIONS[symmetry][cell];
+    }
+
+    public static int unmapCell(int symmetry, int cell) {
+        int[] permutation = PERMUTATIONS[symmetry];
+        for (int original = 0; original < permutation.length; original++) {
+            if (permutation[original] == cell) {
+                return original;
+            }
+        }
+        throw new IllegalArgumentException("Invalid cell: " + cell);
+    }
+
+    public static int mapBoard(int symmetry, int packedState) {
+        int[] permutation = PERMUTATIONS[symmetry];
+        int mapped = 0;
+        for (int cell = 0; cell < permutation.length; cell++) {
+            mapped = BoardState.withCell(mapped, permutation[cell], BoardState.cellOf(packedState, cell));
+        }
+        return mapped;
+    }
+
+    private static int[][] buildPermutations() {
+        Set<String> seen = new LinkedHashSet<>();
+        int[][] permutations = new int[72][];
+        int count = 0;
+
+        for (int transpose = 0; transpose < 2; transpose++) {
+            for (int rowScale = 1; rowScale <= 2; rowScale++) {
+                for (int rowShift = 0; rowShift < 3; rowShift++) {
+                    for (int colScale = 1; colScale <= 2; colScale++) {
+                        for (int colShift = 0; colShift < 3; colShift++) {
+                            int[] permutation = new int[9];
+                            for (int cell = 0; cell < 9; cell++) {
+                                int row = transpose == 0 ? cell / 3 : cell % 3;
+                                int col = transpose == 0 ? cell % 3 : cell / 3;
+                                permutation[cell] = ((rowScale * row + rowShift) % 3) * 3
+                                        + (colScale * col + colShift) % 3;
+                            }
+                            if (seen.add(Arrays.toString(permutation))) {
+                                permutations[count++] = permutation;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(permutations, count);
+    }
+}
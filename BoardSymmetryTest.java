@@ -0,0 +1,105 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class BoardSymmetryTest {
+    @Test
+    void thereAreSeventyTwoDistinctMaps() {
+        assertEquals(72, BoardSymmetry.count());
+        Set<String> maps = new HashSet<>();
+        for (int symmetry = 0; symmetry < BoardSymmetry.count(); symmetry++) {
+            StringBuilder map = new StringBuilder();
+            for (int cell = 0; cell < 9; cell++) {
+                map.append(BoardSymmetry.mapCell(symmetry, cell));
+            }
+            assertTrue(maps.add(map.toString()), "symmetry " + symmetry + " repeats another");
+        }
+    }
+
+    @Test
+    void everyMapIsABijectionWithAMatchingInverse() {
+        for (int symmetry = 0; symmetry < BoardSymmetry.count(); symmetry++) {
+            boolean[] hit = new boolean[9];
+            for (int cell = 0; cell < 9; cell++) {
+                int mapped = BoardSymmetry.mapCell(symmetry, cell);
+                assertTrue(mapped >= 0 && mapped < 9);
+                assertTrue(!hit[mapped], "symmetry " + symmetry + " maps two cells to " + mapped);
+                hit[mapped] = true;
+                assertEquals(cell, BoardSymmetry.unmapCell(symmetry, mapped));
+            }
+        }
+    }
+
+    @Test
+    void everyMapKeepsTorusNeighboursAdjacent() {
+        for (int symmetry = 0; symmetry < BoardSymmetry.count(); symmetry++) {
+            for (int cell = 0; cell < 9; cell++) {
+                Set<Integer> mappedNeighbours = new HashSet<>();
+                Set<Integer> neighboursOfImage = new HashSet<>();
+                int image = BoardSymmetry.mapCell(symmetry, cell);
+                for (int direction = 0; direction < 4; direction++) {
+                    mappedNeighbours.add(BoardSymmetry.mapCell(symmetry, BoardState.neighbourOf(cell, direction)));
+                    neighboursOfImage.add(BoardState.neighbourOf(image, direction));
+                }
+                assertEquals(neighboursOfImage, mappedNeighbours, "symmetry " + symmetry + " cell " + cell);
+            }
+        }
+    }
+
+    // Each move maps to a legal move of the same gem and cost, so mapped
+    // puzzles have the same optimal cost as the original.
+    @Test
+    void everyMapCarriesSuccessorsToSuccessorsOfEqualCost() {
+        SuccessorBuffer buffer = new SuccessorBuffer();
+        for (String board : new String[]{"R_BG__B__", "GBX_XB_R_", "BB_R_G_X_"}) {
+            int packed = new BoardState(board).getPackedState();
+            for (int symmetry = 0; symmetry < BoardSymmetry.count(); symmetry++) {
+                BoardState.expand(BoardSymmetry.mapBoard(symmetry, packed), Move.NONE, buffer);
+                Map<Integer, Integer> expected = new HashMap<>();
+                for (int i = 0; i < buffer.size(); i++) {
+                    expected.put(buffer.moveAt(i), buffer.costAt(i));
+                }
+
+                BoardState.expand(packed, Move.NONE, buffer);
+                assertEquals(expected.size(), buffer.size());
+                for (int i = 0; i < buffer.size(); i++) {
+                    int move = buffer.moveAt(i);
+                    int mappedMove = Move.pack(BoardSymmetry.mapCell(symmetry, Move.sourceOf(move)),
+                            BoardSymmetry.mapCell(symmetry, Move.targetOf(move)), Move.gemOf(move));
+                    assertEquals(expected.get(mappedMove), buffer.costAt(i), board + " symmetry " + symmetry);
+                }
+            }
+        }
+    }
+
+    @Test
+    void mappedPuzzlesHaveTheSameOptimalCost() {
+        BoardState start = new BoardState("GBX_XB_R_");
+        BoardState goal = new BoardState("B_XBX__RG");
+        int cost = solve(start.getPackedState(), goal.getPackedState());
+        for (int symmetry = 0; symmetry < BoardSymmetry.count(); symmetry++) {
+            assertEquals(cost, solve(BoardSymmetry.mapBoard(symmetry, start.getPackedState()),
+                    BoardSymmetry.mapBoard(symmetry, goal.getPackedState())), "symmetry " + symmetry);
+        }
+    }
+
+    private static int solve(int start, int goal) {
+        GameSolver solver = new AStarSolver(board(start), board(goal), false);
+        solver.execute();
+        return solver.getTotalCost();
+    }
+
+    private static BoardState board(int packed) {
+        StringBuilder cells = new StringBuilder();
+        for (int cell = 0; cell < 9; cell++) {
+            cells.append("_XGRB".charAt(BoardState.cellOf(packed, cell)));
+        }
+        return new BoardState(cells.toString());
+    }
+}
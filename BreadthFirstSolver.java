@@ -1,13 +1,14 @@
 import java.util.*;
 
 public class BreadthFirstSolver extends GameSolver {
+    private OffHeapCostMap reachedMoves;
 
     public BreadthFirstSolver(BoardState initial, BoardState target, boolean showOpenList) {
         super(initial, target, showOpenList);
     }
 
     @Override
-    public void execute() {
+    protected void search() {
         if (!validatePuzzle()) {
             solutionPath.append("no path\n");
             return;
@@ -19,15 +20,24 @@ public class BreadthFirstSolver extends GameSolver {
             return;
         }
 
-        Set<BoardState> visitedStates = new HashSet<>();
-        Set<BoardState> pendingStates = new HashSet<>();
+        // Off-heap, the cost map holds every pending and visited state, so
+        // it replaces the two sets as the duplicate check.
+        reachedMoves = createCostMap();
+        StateSet visitedStates = reachedMoves == null ? createStateSet() : null;
+        StateSet pendingStates = reachedMoves == null ? createStateSet() : null;
         Queue<BoardState> stateQueue = new LinkedList<>();
+        SuccessorBuffer successors = new SuccessorBuffer();
+        int targetPacked = targetState.getPackedState();
 
         exploredStates = 0;
         BoardState solution = null;
 
         stateQueue.add(initialState);
-        pendingStates.add(initialState);
+        if (reachedMoves == null) {
+            pendingStates.add(initialState);
+        } else {
+            reachedMoves.put(initialState.getPackedState(), initialState.getPathCost(), Move.NONE);
+        }
 
         while (!stateQueue.isEmpty()) {
             if (displayOpenList) {
@@ -35,24 +45,44 @@ public class BreadthFirstSolver extends GameSolver {
             }
 
             BoardState currentState = stateQueue.poll();
-            pendingStates.remove(currentState);
-            visitedStates.add(currentState);
+            metrics.countExpanded();
+            if (reachedMoves == null) {
+                pendingStates.remove(currentState);
+                visitedStates.add(currentState);
+                metrics.observeClosedSize(visitedStates.size());
+            } else {
+                metrics.observeClosedSize((int) (reachedMoves.entryCount() - stateQueue.size()));
+            }
 
-            for (BoardState nextState : currentState) {
+            currentState.expandInto(successors);
+            for (int i = 0; i < successors.size(); i++) {
                 exploredStates++;
+                metrics.countGenerated();
+
+                int nextPacked = successors.stateAt(i);
+                boolean reached = reachedMoves == null
+                        ? pendingStates.contains(nextPacked) || visitedStates.contains(nextPacked)
+                        : reachedMoves.costOf(nextPacked) != OffHeapCostMap.ABSENT;
+                if (reached) {
+                    metrics.countDuplicate();
+                } else {
+                    BoardState nextState = currentState.successor(successors, i);
+                    if (reachedMoves == null) {
+                        nextState.setPreviousState(currentState);
+                        pendingStates.add(nextState);
+                    } else {
+                        reachedMoves.put(nextPacked, nextState.getPathCost(), successors.moveAt(i));
+                    }
 
-                if (!pendingStates.contains(nextState) && !visitedStates.contains(nextState)) {
-                    nextState.setPreviousState(currentState);
-
-                    if (nextState.equals(targetState)) {
+                    if (nextPacked == targetPacked) {
                         solution = nextState;
                         break;
                     }
 
                     stateQueue.add(nextState);
-                    pendingStates.add(nextState);
                 }
             }
+            metrics.observeOpenSize(stateQueue.size());
 
             if (solution != null) {
                 break;
@@ -68,12 +98,17 @@ public class BreadthFirstSolver extends GameSolver {
     }
 
     private void reconstructSolution(BoardState finalState) {
-        Deque<Move> movesStack = new ArrayDeque<>();
-        BoardState currentState = finalState;
-
-        while (currentState.getPreviousState() != null) {
-            movesStack.push(currentState.getLastMove());
-            currentState = currentState.getPreviousState();
+        metrics.enterPhase(SearchMetrics.Phase.RECONSTRUCTION);
+        Deque<Move> movesStack;
+        if (reachedMoves != null) {
+            movesStack = recordedMovesTo(reachedMoves, finalState.getPackedState());
+        } else {
+            movesStack = new ArrayDeque<>();
+            BoardState currentState = finalState;
+            while (currentState.getPreviousState() != null) {
+                movesStack.push(currentState.getLastMove());
+                currentState = currentState.getPreviousState();
+            }
         }
 
         while (!movesStack.isEmpty()) {
@@ -83,6 +118,9 @@ public class BreadthFirstSolver extends GameSolver {
     }
 
     private void displayQueueContents(Queue<BoardState> queue) {
+        if (traceOpenList(queue)) {
+            return;
+        }
         System.out.println("\nCurrent Open List Status:");
         System.out.println("------------------------");
         for (BoardState state : queue) {
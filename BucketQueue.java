@@ -0,0 +1,175 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public class BucketQueue implements OpenList {
+    public enum TieBreak {
+        FIFO,
+        LIFO
+    }
+
+    private static final int INITIAL_BUCKETS = 64;
+
+    private final StateIndex index;
+    private final TieBreak tieBreak;
+    private BoardState[] liveByRank;
+    private int[] priorityByRank;
+    private ArrayDeque<BoardState>[] buckets = newBuckets(INITIAL_BUCKETS);
+    private int lowestBucket = Integer.MAX_VALUE;
+    private int size;
+
+    public BucketQueue(StateIndex index, TieBreak tieBreak) {
+        this.index = index;
+        this.tieBreak = tieBreak;
+        this.liveByRank = new BoardState[index.size()];
+        this.priorityByRank = new int[index.size()];
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void add(BoardState state, int priority) {
+        int rank = index.rank(state);
+        if (liveAt(rank) != null) {
+            throw new IllegalStateException("State is already in the queue");
+        }
+        if (rank >= liveByRank.length) {
+            int capacity = Math.max(rank + 1, liveByRank.length << 1);
+            liveByRank = Arrays.copyOf(liveByRank, capacity);
+            priorityByRank = Arrays.copyOf(priorityByRank, capacity);
+        }
+        enqueue(state, rank, priority);
+        size++;
+    }
+
+    @Override
+    public BoardState poll() {
+        if (size == 0) {
+            return null;
+        }
+
+        while (true) {
+            ArrayDeque<BoardState> bucket = buckets[lowestBucket];
+            BoardState candidate = tieBreak == TieBreak.FIFO ? bucket.pollFirst() : bucket.pollLast();
+            if (candidate == null) {
+                lowestBucket++;
+                continue;
+            }
+
+            // Entries superseded by decreaseKey stay in their old bucket and are skipped here.
+            int rank = index.rank(candidate);
+            if (liveByRank[rank] == candidate) {
+                liveByRank[rank] = null;
+                size--;
+                return candidate;
+            }
+        }
+    }
+
+    @Override
+    public int peekPriority() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+
+        while (true) {
+            ArrayDeque<BoardState> bucket = buckets[lowestBucket];
+            BoardState candidate = tieBreak == TieBreak.FIFO ? bucket.peekFirst() : bucket.peekLast();
+            if (candidate == null) {
+                lowestBucket++;
+            } else if (liveByRank[index.rank(candidate)] == candidate) {
+                return lowestBucket;
+            } else if (tieBreak == TieBreak.FIFO) {
+                bucket.pollFirst();
+            } else {
+                bucket.pollLast();
+            }
+        }
+    }
+
+    @Override
+    public BoardState get(BoardState state) {
+        return get(state.getPackedState());
+    }
+
+    @Override
+    public BoardState get(int packedState) {
+        return liveAt(index.rank(packedState));
+    }
+
+    private BoardState liveAt(int rank) {
+        return rank < liveByRank.length ? liveByRank[rank] : null;
+    }
+
+    @Override
+    public int priorityOf(BoardState state) {
+        int rank = index.rank(state);
+        if (liveAt(rank) == null) {
+            throw new NoSuchElementException("State is not in the queue");
+        }
+        return priorityByRank[rank];
+    }
+
+    @Override
+    public void decreaseKey(BoardState replacement, int priority) {
+        int rank = index.rank(replacement);
+        if (liveAt(rank) == null) {
+            throw new NoSuchElementException("State is not in the queue");
+        }
+        if (priority > priorityByRank[rank]) {
+            throw new IllegalArgumentException("New priority is larger than the current one");
+        }
+        enqueue(replacement, rank, priority);
+    }
+
+    private void enqueue(BoardState state, int rank, int priority) {
+        if (priority < 0) {
+            throw new IllegalArgumentException("Bucket priorities must be non-negative");
+        }
+        ensureBucket(priority);
+        buckets[priority].addLast(state);
+        liveByRank[rank] = state;
+        priorityByRank[rank] = priority;
+        lowestBucket = Math.min(lowestBucket, priority);
+    }
+
+    private void ensureBucket(int priority) {
+        if (priority >= buckets.length) {
+            int previousLength = buckets.length;
+            int capacity = previousLength;
+            while (capacity <= priority) {
+                capacity <<= 1;
+            }
+            buckets = Arrays.copyOf(buckets, capacity);
+            for (int i = previousLength; i < capacity; i++) {
+                buckets[i] = new ArrayDeque<>();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArrayDeque<BoardState>[] newBuckets(int count) {
+        ArrayDeque<BoardState>[] created = (ArrayDeque<BoardState>[]) new ArrayDeque<?>[count];
+        for (int i = 0; i < count; i++) {
+            created[i] = new ArrayDeque<>();
+        }
+        return created;
+    }
+
+    @Override
+    public Iterator<BoardState> iterator() {
+        return Arrays.stream(buckets)
+                .flatMap(ArrayDeque::stream)
+                .filter(state -> liveByRank[index.rank(state)] == state)
+                .iterator();
+    }
+}
@@ -0,0 +1,104 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class BucketQueueTest {
+    private static final BoardState REFERENCE = new BoardState("GBX_XB_R_");
+    private static final StateIndex INDEX = StateIndex.forBoard(REFERENCE);
+
+    @Test
+    void fifoPollsTiesInInsertionOrder() {
+        BucketQueue queue = new BucketQueue(INDEX, BucketQueue.TieBreak.FIFO);
+        for (int rank = 0; rank < 10; rank++) {
+            queue.add(stateAt(rank), 7);
+        }
+        for (int rank = 0; rank < 10; rank++) {
+            assertEquals(rank, INDEX.rank(queue.poll()));
+        }
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void lifoPollsTiesNewestFirst() {
+        BucketQueue queue = new BucketQueue(INDEX, BucketQueue.TieBreak.LIFO);
+        for (int rank = 0; rank < 10; rank++) {
+            queue.add(stateAt(rank), 7);
+        }
+        for (int rank = 9; rank >= 0; rank--) {
+            assertEquals(rank, INDEX.rank(queue.poll()));
+        }
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void lowerBucketsComeFirstWhateverTheTieBreak() {
+        for (BucketQueue.TieBreak tieBreak : BucketQueue.TieBreak.values()) {
+            BucketQueue queue = new BucketQueue(INDEX, tieBreak);
+            Random random = new Random(11);
+            int[] priorities = new int[INDEX.size()];
+            for (int rank = 0; rank < INDEX.size(); rank++) {
+                priorities[rank] = random.nextInt(200);
+                queue.add(stateAt(rank), priorities[rank]);
+            }
+            int previous = 0;
+            int polled = 0;
+            while (!queue.isEmpty()) {
+                int priority = queue.peekPriority();
+                assertEquals(priorities[INDEX.rank(queue.poll())], priority);
+                assertTrue(priority >= previous);
+                previous = priority;
+                polled++;
+            }
+            assertEquals(INDEX.size(), polled);
+        }
+    }
+
+    @Test
+    void decreaseKeyMovesTheStateAndSkipsItsOldEntry() {
+        for (BucketQueue.TieBreak tieBreak : BucketQueue.TieBreak.values()) {
+            BucketQueue queue = new BucketQueue(INDEX, tieBreak);
+            for (int rank = 0; rank < 5; rank++) {
+                queue.add(stateAt(rank), 10);
+            }
+            BoardState replacement = stateAt(2);
+            queue.decreaseKey(replacement, 4);
+            assertEquals(4, queue.priorityOf(replacement));
+            assertEquals(4, queue.peekPriority());
+            assertSame(replacement, queue.poll());
+
+            int polled = 0;
+            while (!queue.isEmpty()) {
+                assertTrue(INDEX.rank(queue.poll()) != 2, "stale entry was returned");
+                polled++;
+            }
+            assertEquals(4, polled);
+            assertNull(queue.poll());
+        }
+    }
+
+    @Test
+    void rejectsInvalidUpdates() {
+        BucketQueue queue = new BucketQueue(INDEX, BucketQueue.TieBreak.FIFO);
+        queue.add(stateAt(1), 10);
+        assertThrows(IllegalStateException.class, () -> queue.add(stateAt(1), 5));
+        assertThrows(IllegalArgumentException.class, () -> queue.decreaseKey(stateAt(1), 11));
+        assertThrows(IllegalArgumentException.class, () -> queue.add(stateAt(2), -1));
+        assertThrows(NoSuchElementException.class, () -> queue.decreaseKey(stateAt(3), 1));
+    }
+
+    private static BoardState stateAt(int rank) {
+        int packed = INDEX.unrank(rank);
+        StringBuilder cells = new StringBuilder();
+        for (int cell = 0; cell < 9; cell++) {
+            cells.append("_XGRB".charAt(BoardState.cellOf(packed, cell)));
+        }
+        return new BoardState(cells.toString());
+    }
+}
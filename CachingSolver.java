@@ -0,0 +1,80 @@
+public class CachingSolver extends GameSolver {
+    private static final String MOVE_SEPARATOR = "--";
+
+    private final String algorithm;
+    private final SolutionCache cache;
+
+    public CachingSolver(String algorithm, BoardState initial, BoardState target, SolutionCache cache) {
+        super(initial, target, false);
+        this.algorithm = algorithm;
+        this.cache = cache;
+    }
+
+    @Override
+    protected void search() {
+        int start = initialState.getPackedState();
+        int goal = targetState.getPackedState();
+
+        // The canonical pair is the smallest (goal, start) image over all
+        // torus symmetries; the symmetry that produced it maps moves in and out.
+        int symmetry = 0;
+        long canonical = Long.MAX_VALUE;
+        for (int candidate = 0; candidate < BoardSymmetry.count(); candidate++) {
+            long boards = ((long) BoardSymmetry.mapBoard(candidate, goal) << 32)
+                    | BoardSymmetry.mapBoard(candidate, start);
+            if (boards < canonical) {
+                canonical = boards;
+                symmetry = candidate;
+            }
+        }
+
+        SolutionCache.Key key = new SolutionCache.Key(algorithm, canonical);
+        // A hit runs no search, so it reports no explored states.
+        SolutionCache.Solution solution = cache.lookup(key);
+        if (solution == null) {
+            solution = solve(symmetry);
+            cache.store(key, solution);
+        }
+        replay(solution, symmetry);
+    }
+
+    private SolutionCache.Solution solve(int symmetry) {
+        GameSolver solver = SolverSelector.createSolver(algorithm, initialState, targetState, false);
+        solver.run();
+        metrics.include(solver.getMetrics());
+        exploredStates = solver.getExploredStates();
+
+        String path = solver.getSolutionPath();
+        if (path.indexOf(':') < 0) {
+            return new SolutionCache.Solution(path, new int[0], solver.getTotalCost());
+        }
+
+        String[] steps = path.trim().split(MOVE_SEPARATOR);
+        int[] moves = new int[steps.length];
+        for (int i = 0; i < steps.length; i++) {
+            Move move = Move.parse(steps[i]);
+            int[] source = move.getSource();
+            int[] target = move.getTarget();
+            moves[i] = Move.pack(BoardSymmetry.mapCell(symmetry, source[0] * 3 + source[1]),
+                    BoardSymmetry.mapCell(symmetry, target[0] * 3 + target[1]), move.getGemType());
+        }
+        return new SolutionCache.Solution(null, moves, solver.getTotalCost());
+    }
+
+    private void replay(SolutionCache.Solution solution, int symmetry) {
+        totalCost = solution.totalCost();
+
+        int[] moves = solution.moves();
+        if (moves.length == 0) {
+            solutionPath.append(solution.outcome());
+            return;
+        }
+
+        for (int i = 0; i < moves.length; i++) {
+            int source = BoardSymmetry.unmapCell(symmetry, Move.sourceOf(moves[i]));
+            int target = BoardSymmetry.unmapCell(symmetry, Move.targetOf(moves[i]));
+            solutionPath.append(Move.unpack(Move.pack(source, target, Move.gemOf(moves[i])), 3).toString());
+            solutionPath.append(i + 1 < moves.length ? MOVE_SEPARATOR : "\n");
+        }
+    }
+}
@@ -1,13 +1,17 @@
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Stack;
 
 public class DFIDSolver extends GameSolver {
+    private final List<SuccessorBuffer> successorsByDepth = new ArrayList<>();
+    private int depthLimit;
+
     public DFIDSolver(BoardState initial, BoardState target, boolean displayOpen) {
         super(initial, target, displayOpen);
     }
 
     @Override
-    public void execute() {
+    protected void search() {
         if (!validatePuzzle()) {
             solutionPath.append("no path\n");
             return;
@@ -18,10 +22,12 @@ public class DFIDSolver extends GameSolver {
             return;
         }
 
-        int currentDepth = 1;
+        depthLimit = 1;
         while (true) {
-            HashSet<BoardState> visitedStates = new HashSet<>();
-            ResultType result = performDepthSearch(initialState, currentDepth, visitedStates);
+            StateSet visitedStates = createStateSet();
+            metrics.beginIteration(depthLimit);
+            ResultType result = performDepthSearch(initialState, depthLimit, visitedStates);
+            metrics.endIteration();
 
             if (!result.equals(ResultType.CONTINUE_DEEPER)) {
                 if (result.equals(ResultType.PATH_NOT_FOUND)) {
@@ -29,7 +35,7 @@ public class DFIDSolver extends GameSolver {
                 }
                 break;
             }
-            currentDepth++;
+            depthLimit++;
         }
     }
 
@@ -40,7 +46,7 @@ public class DFIDSolver extends GameSolver {
     }
 
     private ResultType performDepthSearch(BoardState currentState, int depthRemaining,
-                                          HashSet<BoardState> visitedStates) {
+                                          StateSet visitedStates) {
         if (currentState.equals(targetState)) {
             totalCost = currentState.getPathCost(); // שינוי ל-getPathCost
             buildSolutionPath(currentState);
@@ -52,13 +58,20 @@ public class DFIDSolver extends GameSolver {
         }
 
         visitedStates.add(currentState);
+        metrics.countExpanded();
+        metrics.observeClosedSize(visitedStates.size());
         boolean shouldContinueDeeper = false;
 
-        for (BoardState successor : currentState) { // שימוש באיטרטור המובנה
-            if (visitedStates.contains(successor)) {
+        SuccessorBuffer successors = successorsAt(depthLimit - depthRemaining);
+        currentState.expandInto(successors);
+        for (int i = 0; i < successors.size(); i++) {
+            metrics.countGenerated();
+            if (visitedStates.contains(successors.stateAt(i))) {
+                metrics.countDuplicate();
                 continue;
             }
 
+            BoardState successor = currentState.successor(successors, i);
             successor.setPreviousState(currentState);
             exploredStates++;
 
@@ -80,7 +93,15 @@ public class DFIDSolver extends GameSolver {
         return shouldContinueDeeper ? ResultType.CONTINUE_DEEPER : ResultType.PATH_NOT_FOUND;
     }
 
+    private SuccessorBuffer successorsAt(int depth) {
+        while (successorsByDepth.size() <= depth) {
+            successorsByDepth.add(new SuccessorBuffer());
+        }
+        return successorsByDepth.get(depth);
+    }
+
     private void buildSolutionPath(BoardState goalState) {
+        metrics.enterPhase(SearchMetrics.Phase.RECONSTRUCTION);
         Stack<Move> movesStack = new Stack<>();
         BoardState currentState = goalState;
 
@@ -99,13 +120,21 @@ public class DFIDSolver extends GameSolver {
         solutionPath.append("\n");
     }
 
-    private void showExplorationStatus(HashSet<BoardState> visitedStates) {
+    private void showExplorationStatus(StateSet visitedStates) {
+        if (isTracing()) {
+            SearchTrace.Sample sample = sampleOpenList();
+            if (sample != null) {
+                visitedStates.forEach(sample::add);
+                sample.submit(0);
+            }
+            return;
+        }
         System.out.println("Exploration progress:");
         System.out.println("----------------------------------------");
-        for (BoardState state : visitedStates) {
-            state.displayBoard();
+        visitedStates.forEach(packed -> {
+            targetState.getGeometry().display(packed);
             System.out.println();
-        }
+        });
         System.out.println("----------------------------------------");
     }
 }
@@ -0,0 +1,88 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+public class DatabaseSolver extends GameSolver {
+
+    public DatabaseSolver(BoardState initial, BoardState target, boolean showOpenList) {
+        super(initial, target, showOpenList);
+        BoardGeometry.requireStandard(target, "The database solver");
+    }
+
+    @Override
+    protected void search() {
+        if (!validatePuzzle()) {
+            solutionPath.append("no path\n");
+            return;
+        }
+
+        if (initialState.equals(targetState)) {
+            solutionPath.append("start is the goal\n");
+            totalCost = 0;
+            return;
+        }
+
+        GoalDistanceDatabase database;
+        try {
+            database = GoalDistanceDatabase.openIfPresent(targetState);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open goal distance database", e);
+        }
+
+        if (database == null) {
+            solveWithoutDatabase();
+        } else {
+            walkDatabase(database);
+        }
+    }
+
+    // With exact costs-to-goal every step just picks a successor whose
+    // remaining cost drops by exactly the cost of the move taken.
+    private void walkDatabase(GoalDistanceDatabase database) {
+        int remaining = database.distance(initialState.getPackedState());
+        if (remaining == Heuristic.DEAD_END) {
+            solutionPath.append("no path\n");
+            return;
+        }
+
+        totalCost = remaining;
+        BoardState current = initialState;
+        while (!current.equals(targetState)) {
+            if (displayOpenList && !traceOpenList(List.of(current))) {
+                current.displayBoard();
+                System.out.println();
+            }
+
+            metrics.countExpanded();
+            BoardState next = null;
+            for (BoardState successor : current) {
+                exploredStates++;
+                metrics.countGenerated();
+                int successorRemaining = database.distance(successor.getPackedState());
+                if (successorRemaining != Heuristic.DEAD_END
+                        && successorRemaining + successor.getLastMove().getCost() == remaining) {
+                    next = successor;
+                    remaining = successorRemaining;
+                    break;
+                }
+            }
+
+            if (next == null) {
+                throw new IllegalStateException("Goal distance database is inconsistent with the board");
+            }
+            solutionPath.append(next.getLastMove().toString());
+            solutionPath.append(next.equals(targetState) ? "\n" : "--");
+            current = next;
+        }
+    }
+
+    private void solveWithoutDatabase() {
+        GameSolver fallback = new AStarSolver(initialState, targetState, displayOpenList,
+                new PatternDatabaseHeuristic(targetState), AStarSolver.OpenListType.BINARY_HEAP);
+        fallback.run();
+        solutionPath.append(fallback.getSolutionPath());
+        totalCost = fallback.getTotalCost();
+        exploredStates = fallback.getExploredStates();
+        metrics.include(fallback.getMetrics());
+    }
+}
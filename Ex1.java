@@ -4,15 +4,63 @@ import java.util.*;
 public class Ex1 {
     private static final String INPUT_FILENAME = "input.txt";
     private static final String OUTPUT_FILENAME = "output.txt";
+    private static final String BATCH_FLAG = "--batch";
+    private static final String SERVE_FLAG = "--serve";
+    private static final int DEFAULT_PORT = 8080;
+    private static final int QUEUED_PER_WORKER = 16;
 
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals(BATCH_FLAG)) {
+            runBatch(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals(SERVE_FLAG)) {
+            runServer(args);
+            return;
+        }
+
         Configuration config = readConfiguration(INPUT_FILENAME);
         executeGame(config);
     }
 
+    private static void runBatch(String[] args) {
+        if (args.length < 3 || args.length > 4) {
+            System.err.println("Usage: java Ex1 --batch <input|-> <output|-> [workers]");
+            System.exit(2);
+        }
+
+        int workers = args.length == 4 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        try {
+            new BatchRunner(workers).run(args[1], args[2]);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Batch run failed", e);
+        }
+    }
+
+    private static void runServer(String[] args) {
+        if (args.length > 4) {
+            System.err.println("Usage: java Ex1 --serve [port] [workers] [queue]");
+            System.exit(2);
+        }
+
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+        int workers = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int queue = args.length > 3 ? Integer.parseInt(args[3]) : workers * QUEUED_PER_WORKER;
+        try {
+            SolverServer server = new SolverServer(port, workers, queue);
+            Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+            server.start();
+            System.err.printf("Serving on port %d with %d workers and %d queued searches%n",
+                    server.getPort(), workers, queue);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start the solver server", e);
+        }
+    }
+
     private static void executeGame(Configuration config) {
-        BoardState initialBoard = new BoardState(config.initialStateStr);
-        BoardState targetBoard = new BoardState(config.goalStateStr);
+        BoardState[] boards = BoardState.parsePuzzle(config.initialStateStr, config.goalStateStr);
+        BoardState initialBoard = boards[0];
+        BoardState targetBoard = boards[1];
         GameSolver solver = SolverSelector.createSolver(config.algorithmName, initialBoard, targetBoard, config.showOpenList);
 
         long beginTime = System.nanoTime();
@@ -28,8 +76,7 @@ public class Ex1 {
             output.write(solver.getSolutionPath());
             output.write("Num: " + solver.getExploredStates() + "\n");
 
-            String costStr = solver.getSolutionPath().equals("no path\n") ? "inf" : String.valueOf(solver.getTotalCost());
-            output.write("Cost: " + costStr + "\n");
+            output.write("Cost: " + describeCost(solver) + "\n");
 
             if (includeTime) {
                 output.write(totalTime + " seconds\n");
@@ -39,6 +86,10 @@ public class Ex1 {
         }
     }
 
+    static String describeCost(GameSolver solver) {
+        return solver.getSolutionPath().equals("no path\n") ? "inf" : String.valueOf(solver.getTotalCost());
+    }
+
     private static Configuration readConfiguration(String filename) {
         Configuration config = new Configuration();
         List<String> fileContent = readFileLines(filename);
@@ -48,17 +99,17 @@ public class Ex1 {
         config.showOpenList = fileContent.get(2).equals("with open");
 
         int lineIdx = 3;
-        StringBuilder initState = new StringBuilder();
+        StringJoiner initState = new StringJoiner("/");
         while (!fileContent.get(lineIdx).equals("Goal state:")) {
-            initState.append(fileContent.get(lineIdx).replace(",", ""));
+            addRow(initState, fileContent.get(lineIdx));
             lineIdx++;
         }
         config.initialStateStr = initState.toString();
 
-        StringBuilder goalState = new StringBuilder();
+        StringJoiner goalState = new StringJoiner("/");
         lineIdx++;
         while (lineIdx < fileContent.size()) {
-            goalState.append(fileContent.get(lineIdx).replace(",", ""));
+            addRow(goalState, fileContent.get(lineIdx));
             lineIdx++;
         }
         config.goalStateStr = goalState.toString();
@@ -66,6 +117,13 @@ public class Ex1 {
         return config;
     }
 
+    private static void addRow(StringJoiner board, String line) {
+        String row = line.replace(",", "");
+        if (!row.isEmpty()) {
+            board.add(row);
+        }
+    }
+
     private static List<String> readFileLines(String filename) {
         List<String> lines = new ArrayList<>();
         try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
@@ -1,12 +1,19 @@
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
 
 public abstract class GameSolver {
+    private static final String OFF_HEAP_PROPERTY = "search.offHeapStates";
+
     protected boolean displayOpenList;
     protected BoardState initialState;
     protected BoardState targetState;
     protected int exploredStates;
     protected int totalCost;
     protected StringBuilder solutionPath = new StringBuilder();
+    protected final SearchMetrics metrics = new SearchMetrics(getClass().getSimpleName());
+    private StateIndex stateIndex;
+    private SearchTrace trace;
 
     public GameSolver(BoardState start, BoardState target, boolean showOpen) {
         this.initialState = start;
@@ -26,14 +33,61 @@ public abstract class GameSolver {
         return solutionPath.toString();
     }
 
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+
+    public final void execute() {
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        try {
+            run();
+        } finally {
+            if (event.shouldCommit()) {
+                metrics.fill(event);
+                event.solved = !getSolutionPath().equals("no path\n");
+                event.totalCost = totalCost;
+                event.commit();
+            }
+        }
+    }
+
+    // Runs the search and records its metrics without committing a
+    // SearchEvent, for solvers that delegate to another one and commit
+    // the event for the whole query themselves.
+    final void run() {
+        metrics.reset();
+        metrics.enterPhase(SearchMetrics.Phase.SEARCH);
+        trace = displayOpenList ? SearchTrace.fromProperties(targetState.getGeometry(), getClass().getSimpleName()) : null;
+        try {
+            search();
+        } finally {
+            if (trace != null) {
+                trace.close();
+            }
+            metrics.finishPhases();
+        }
+    }
+
     protected boolean validatePuzzle() {
+        metrics.enterPhase(SearchMetrics.Phase.VALIDATION);
+        boolean valid = checkWallsAndGems() && checkRegions();
+        metrics.enterPhase(SearchMetrics.Phase.SEARCH);
+        return valid;
+    }
+
+    private boolean checkWallsAndGems() {
+        if (initialState.getGeometry() != targetState.getGeometry()) {
+            return false;
+        }
+
         int[][] initial = initialState.getBoardMatrix();
         int[][] target = targetState.getBoardMatrix();
         int[] initialGems = new int[3];
         int[] targetGems = new int[3];
 
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
+        for (int i = 0; i < initial.length; i++) {
+            for (int j = 0; j < initial[i].length; j++) {
                 if ((initial[i][j] == 1) != (target[i][j] == 1)) {
                     return false;
                 }
@@ -44,11 +98,128 @@ public abstract class GameSolver {
         return Arrays.equals(initialGems, targetGems);
     }
 
+    // Walls never move, so they cut the torus into regions no gem can leave.
+    // Each region must hold the same gems on both boards, and a region with
+    // no empty cell cannot change at all.
+    private boolean checkRegions() {
+        BoardGeometry geometry = targetState.getGeometry();
+        int initial = initialState.getPackedState();
+        int target = targetState.getPackedState();
+        int cellCount = geometry.getCellCount();
+        boolean[] visited = new boolean[cellCount];
+        int[] queue = new int[cellCount];
+
+        for (int seed = 0; seed < cellCount; seed++) {
+            if (visited[seed] || geometry.cellOf(initial, seed) == 1) {
+                continue;
+            }
+
+            int[] initialGems = new int[3];
+            int[] targetGems = new int[3];
+            boolean hasEmptyCell = false;
+            boolean changes = false;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = seed;
+            visited[seed] = true;
+            while (head < tail) {
+                int cell = queue[head++];
+                int initialCell = geometry.cellOf(initial, cell);
+                int targetCell = geometry.cellOf(target, cell);
+                hasEmptyCell |= initialCell == 0;
+                changes |= initialCell != targetCell;
+                countGems(initialCell, initialGems);
+                countGems(targetCell, targetGems);
+
+                for (int direction = 0; direction < 4; direction++) {
+                    int neighbour = geometry.neighbourOf(cell, direction);
+                    if (!visited[neighbour] && geometry.cellOf(initial, neighbour) != 1) {
+                        visited[neighbour] = true;
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+
+            if (!Arrays.equals(initialGems, targetGems) || (changes && !hasEmptyCell)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private void countGems(int cell, int[] counts) {
         if (cell >= 2 && cell <= 4) {
             counts[cell - 2]++;
         }
     }
 
-    public abstract void execute();
+    protected StateIndex getStateIndex() {
+        if (stateIndex == null) {
+            stateIndex = StateIndex.forBoard(targetState);
+        }
+        return stateIndex;
+    }
+
+    protected StateSet createStateSet() {
+        return new IndexedStateSet(getStateIndex());
+    }
+
+    // Sets that can grow to the whole search space. With
+    // -Dsearch.offHeapStates=<expected states> they live off the Java heap.
+    protected StateSet createLargeStateSet() {
+        long expected = Long.getLong(OFF_HEAP_PROPERTY, 0);
+        return expected > 0 ? new OffHeapStateSet(expected) : createStateSet();
+    }
+
+    // Null unless off-heap storage is enabled, in which case solvers record
+    // how each state was reached here instead of linking parent states.
+    protected OffHeapCostMap createCostMap() {
+        long expected = Long.getLong(OFF_HEAP_PROPERTY, 0);
+        return expected > 0 ? new OffHeapCostMap(expected) : null;
+    }
+
+    protected Deque<Move> recordedMovesTo(OffHeapCostMap reached, int packedState) {
+        BoardGeometry geometry = targetState.getGeometry();
+        Deque<Move> moves = new ArrayDeque<>();
+        int state = packedState;
+        int move;
+        while ((move = reached.moveOf(state)) != Move.NONE) {
+            moves.push(Move.unpack(move, geometry.getColumns()));
+            state = geometry.applyMove(state, Move.reverseOf(move));
+        }
+        return moves;
+    }
+
+    // With trace.file set, open-list dumps go to a sampled binary trace
+    // written in the background instead of to the console.
+    protected boolean isTracing() {
+        return trace != null;
+    }
+
+    // A snapshot to fill for this step, or null when it is not sampled.
+    protected SearchTrace.Sample sampleOpenList() {
+        return trace == null ? null : trace.sample();
+    }
+
+    // Returns false when the solver should print the open list itself.
+    protected boolean traceOpenList(Iterable<BoardState> open) {
+        return traceOpenList(0, open);
+    }
+
+    // Solvers with several open lists trace each under its own number.
+    protected boolean traceOpenList(int list, Iterable<BoardState> open) {
+        if (trace == null) {
+            return false;
+        }
+        SearchTrace.Sample sample = trace.sample();
+        if (sample != null) {
+            for (BoardState state : open) {
+                sample.add(state.getPackedState());
+            }
+            sample.submit(list);
+        }
+        return true;
+    }
+
+    protected abstract void search();
 }
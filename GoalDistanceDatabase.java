@@ -0,0 +1,193 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class GoalDistanceDatabase implements Heuristic {
+    // File layout (big-endian): magic, version, goal packed state, state count,
+    // then one unsigned 16-bit exact cost-to-goal per StateIndex rank.
+    private static final int MAGIC = 0x47444442; // "GDDB"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int UNREACHABLE = 0xFFFF;
+    private static final int WALL = 1;
+    private static final String DIRECTORY_PROPERTY = "gddb.dir";
+
+    private static final ConcurrentMap<Path, GoalDistanceDatabase> opened = new ConcurrentHashMap<>();
+
+    private final int goalPacked;
+    private final StateIndex index;
+    private final ByteBuffer distances;
+
+    private GoalDistanceDatabase(int goalPacked, StateIndex index, ByteBuffer distances) {
+        this.goalPacked = goalPacked;
+        this.index = index;
+        this.distances = distances;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: java GoalDistanceDatabase <goal board, e.g. GR__X_B__> [output file]");
+            System.exit(2);
+        }
+
+        BoardState goal = new BoardState(args[0].replace(",", ""));
+        Path file = args.length == 2 ? Path.of(args[1]) : defaultLocation(goal);
+        long beginTime = System.nanoTime();
+        write(goal, file);
+        System.out.printf("Wrote %s in %.3f seconds%n", file, (System.nanoTime() - beginTime) / 1e9);
+    }
+
+    public static Path defaultLocation(BoardState goal) {
+        return Path.of(System.getProperty(DIRECTORY_PROPERTY, "."),
+                String.format("goal-%08x.gddb", goal.getPackedState()));
+    }
+
+    public static void write(BoardState goal, Path file) throws IOException {
+        BoardGeometry.requireStandard(goal, "The goal distance database");
+        StateIndex index = StateIndex.forBoard(goal);
+        int[] costs = sweepFromGoal(goal.getPackedState(), index);
+
+        ByteBuffer contents = ByteBuffer.allocate(HEADER_BYTES + 2 * costs.length);
+        contents.putInt(MAGIC).putInt(VERSION).putInt(goal.getPackedState()).putInt(costs.length);
+        for (int cost : costs) {
+            if (cost == Integer.MAX_VALUE) {
+                contents.putChar((char) UNREACHABLE);
+            } else if (cost < UNREACHABLE) {
+                contents.putChar((char) cost);
+            } else {
+                throw new IllegalStateException("Cost " + cost + " does not fit the database format");
+            }
+        }
+        contents.flip();
+
+        Path absolute = file.toAbsolutePath();
+        Files.createDirectories(absolute.getParent());
+        Path temporary = Files.createTempFile(absolute.getParent(), "gddb", ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            while (contents.hasRemaining()) {
+                channel.write(contents);
+            }
+        }
+        Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        opened.remove(absolute);
+    }
+
+    public static GoalDistanceDatabase open(Path file) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        GoalDistanceDatabase database = opened.get(absolute);
+        if (database == null) {
+            database = map(absolute);
+            GoalDistanceDatabase raced = opened.putIfAbsent(absolute, database);
+            if (raced != null) {
+                database = raced;
+            }
+        }
+        return database;
+    }
+
+    public static GoalDistanceDatabase openIfPresent(BoardState goal) throws IOException {
+        BoardGeometry.requireStandard(goal, "The goal distance database");
+        Path file = defaultLocation(goal);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        GoalDistanceDatabase database = open(file);
+        return database.goalPacked == goal.getPackedState() ? database : null;
+    }
+
+    public static Heuristic heuristicFor(BoardState goal) {
+        try {
+            GoalDistanceDatabase database = openIfPresent(goal);
+            return database != null ? database : new PatternDatabaseHeuristic(goal);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open goal distance database", e);
+        }
+    }
+
+    private static GoalDistanceDatabase map(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a goal distance database: " + file);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported goal distance database version " + buffer.getInt(4));
+        }
+
+        int goalPacked = buffer.getInt(8);
+        StateIndex index = StateIndex.forBoard(goalPacked);
+        int stateCount = buffer.getInt(12);
+        if (stateCount != index.size() || buffer.capacity() != HEADER_BYTES + 2L * stateCount) {
+            throw new IOException("Corrupt goal distance database: " + file);
+        }
+        return new GoalDistanceDatabase(goalPacked, index, buffer);
+    }
+
+    public int distance(int packedState) {
+        int cost = distances.getChar(HEADER_BYTES + 2 * index.rank(packedState));
+        return cost == UNREACHABLE ? DEAD_END : cost;
+    }
+
+    @Override
+    public int estimate(int packedState) {
+        return distance(packedState);
+    }
+
+    // Moves are reversible at equal cost, so a forward Dijkstra sweep from the
+    // goal yields the exact cost-to-goal of every arrangement.
+    private static int[] sweepFromGoal(int goalPacked, StateIndex index) {
+        int[] costs = new int[index.size()];
+        Arrays.fill(costs, Integer.MAX_VALUE);
+        PriorityQueue<Long> frontier = new PriorityQueue<>();
+
+        int goalRank = index.rank(goalPacked);
+        costs[goalRank] = 0;
+        frontier.add((long) goalRank);
+
+        while (!frontier.isEmpty()) {
+            long entry = frontier.poll();
+            int rank = (int) entry;
+            int cost = (int) (entry >>> 32);
+            if (cost > costs[rank]) {
+                continue;
+            }
+
+            int packed = index.unrank(rank);
+            for (int cell = 0; cell < 9; cell++) {
+                int gem = BoardState.cellOf(packed, cell);
+                if (gem <= WALL) {
+                    continue;
+                }
+                for (int direction = 0; direction < 4; direction++) {
+                    int neighbour = BoardState.neighbourOf(cell, direction);
+                    if (BoardState.cellOf(packed, neighbour) != 0) {
+                        continue;
+                    }
+
+                    int next = BoardState.withCell(BoardState.withCell(packed, cell, 0), neighbour, gem);
+                    int nextRank = index.rank(next);
+                    int nextCost = cost + BoardState.getGemValue(gem);
+                    if (nextCost < costs[nextRank]) {
+                        costs[nextRank] = nextCost;
+                        frontier.add(((long) nextCost << 32) | nextRank);
+                    }
+                }
+            }
+        }
+        return costs;
+    }
+}
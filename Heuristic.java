@@ -0,0 +1,17 @@
+public interface Heuristic {
+    Heuristic ZERO = packedState -> 0;
+    int DEAD_END = Integer.MAX_VALUE;
+
+    int estimate(int packedState);
+
+    // Estimate of a state reached by one move from a state with the given
+    // estimate. Heuristics that can adjust the parent's value for the two
+    // cells a move touches override this to avoid a full evaluation.
+    default int estimateAfterMove(int parentEstimate, int packedMove, int packedState) {
+        return estimate(packedState);
+    }
+
+    static Heuristic misplacedGems(BoardState target) {
+        return new MisplacedGemsHeuristic(target);
+    }
+}
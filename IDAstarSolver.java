@@ -1,21 +1,45 @@
-import java.util.HashSet;
-import java.util.Stack;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
 
 public class IDAstarSolver extends GameSolver {
     private static final int INFINITY = Integer.MAX_VALUE;
-    private final Stack<BoardState> searchStack;
-    private final HashSet<BoardState> visitedStates;
+    private static final String TRANSPOSITION_PROPERTY = "ida.transpositionMegabytes";
+    private static final long DEFAULT_TRANSPOSITION_MEGABYTES = 16;
+    private final Heuristic heuristic;
+    private final TranspositionTable transpositions;
+    private IndexedStack searchStack;
+    private StateIndex index;
+    // Per-rank bookkeeping for the states on the stack: whether a state has
+    // been expanded, and the cheapest f-value seen below it so far.
+    private final BitSet expanded = new BitSet();
+    private int[] subtreeCosts = new int[0];
+    private final SuccessorBuffer successors = new SuccessorBuffer();
     private int currentThreshold;
     private int nextThreshold;
+    private int iteration;
 
     public IDAstarSolver(BoardState initial, BoardState target, boolean showOpenList) {
+        this(initial, target, showOpenList, Heuristic.misplacedGems(target));
+    }
+
+    public IDAstarSolver(BoardState initial, BoardState target, boolean showOpenList, Heuristic heuristic) {
+        this(initial, target, showOpenList, heuristic,
+                Long.getLong(TRANSPOSITION_PROPERTY, DEFAULT_TRANSPOSITION_MEGABYTES) << 20);
+    }
+
+    // A budget of zero bytes disables the transposition table, leaving
+    // only the duplicate check against the current path.
+    public IDAstarSolver(BoardState initial, BoardState target, boolean showOpenList, Heuristic heuristic,
+                         long transpositionBytes) {
         super(initial, target, showOpenList);
-        this.searchStack = new Stack<>();
-        this.visitedStates = new HashSet<>();
+        this.heuristic = heuristic;
+        this.transpositions = transpositionBytes > 0 ? new TranspositionTable(transpositionBytes) : null;
     }
 
     @Override
-    public void execute() {
+    protected void search() {
         if (!validateInitialConditions()) {
             return;
         }
@@ -42,7 +66,9 @@ public class IDAstarSolver extends GameSolver {
 
         while (currentThreshold != INFINITY) {
             prepareNextIteration();
+            metrics.beginIteration(currentThreshold);
             boolean solutionFound = executeSearchIteration();
+            metrics.endIteration();
 
             if (solutionFound) {
                 return;
@@ -55,21 +81,28 @@ public class IDAstarSolver extends GameSolver {
     }
 
     private void initializeSearch() {
-        currentThreshold = initialState.estimateCost(targetState);
+        index = getStateIndex();
+        searchStack = new IndexedStack(index);
+        currentThreshold = heuristic.estimate(initialState.getPackedState());
+        initialState.setHeuristicEstimate(currentThreshold);
         nextThreshold = INFINITY;
+        iteration = 0;
+        if (transpositions != null) {
+            transpositions.clear();
+        }
     }
 
     private void prepareNextIteration() {
         clearSearchStructures();
-        initialState.marked = false;
+        expanded.clear();
         nextThreshold = INFINITY;
+        iteration++;
     }
 
     private void clearSearchStructures() {
         searchStack.clear();
-        visitedStates.clear();
         searchStack.push(initialState);
-        visitedStates.add(initialState);
+        remember(initialState, 0);
     }
 
     private boolean executeSearchIteration() {
@@ -78,12 +111,13 @@ public class IDAstarSolver extends GameSolver {
 
             BoardState currentState = searchStack.peek();
 
-            if (currentState.marked) {
-                processMarkedState(currentState);
+            int rank = index.rank(currentState);
+            if (expanded.get(rank)) {
+                processExpandedState(currentState, rank);
                 continue;
             }
 
-            if (exploreCurrentState(currentState)) {
+            if (exploreCurrentState(currentState, rank)) {
                 return true;
             }
         }
@@ -96,74 +130,125 @@ public class IDAstarSolver extends GameSolver {
         }
     }
 
-    private void processMarkedState(BoardState state) {
+    private void processExpandedState(BoardState state, int rank) {
         searchStack.pop();
-        visitedStates.remove(state);
+        expanded.clear(rank);
+        backUp(state, subtreeCosts[rank]);
     }
 
-    private boolean exploreCurrentState(BoardState current) {
-        current.marked = true;
+    // Once a subtree is exhausted, the cheapest f-value seen at its edge is
+    // a lower bound for every path through it. Children skipped as
+    // duplicates only contribute their own estimate, so the bound never
+    // relies on a part of the graph this subtree did not search.
+    private void backUp(BoardState state, int subtreeCost) {
+        int bound = subtreeCost == INFINITY ? INFINITY : subtreeCost - state.getPathCost();
+        remember(state, bound);
+        contribute(state.getPreviousState(), subtreeCost);
+    }
 
-        for (BoardState successor : current) {
+    private void contribute(BoardState parent, int cost) {
+        if (parent != null) {
+            int rank = index.rank(parent);
+            subtreeCosts[rank] = Math.min(subtreeCosts[rank], cost);
+        }
+    }
+
+    private void remember(BoardState state, int bound) {
+        if (transpositions != null) {
+            transpositions.store(state.getPackedState(), state.getPathCost(), bound, iteration);
+        }
+    }
+
+    // The heuristic's own estimate, raised to the bound the transposition
+    // table has learned for the state.
+    private int estimate(int packed, int estimate) {
+        if (estimate == Heuristic.DEAD_END || transpositions == null) {
+            return estimate;
+        }
+        return Math.max(estimate, transpositions.lowerBound(packed));
+    }
+
+    private boolean exploreCurrentState(BoardState current, int rank) {
+        expanded.set(rank);
+        if (rank >= subtreeCosts.length) {
+            subtreeCosts = Arrays.copyOf(subtreeCosts, Math.max(rank + 1, subtreeCosts.length << 1));
+        }
+        subtreeCosts[rank] = INFINITY;
+        int cheapest = INFINITY;
+        metrics.countExpanded();
+        metrics.observeOpenSize(searchStack.size());
+        metrics.observeClosedSize(searchStack.size());
+
+        current.expandInto(successors);
+        for (int i = 0; i < successors.size(); i++) {
             exploredStates++;
+            metrics.countGenerated();
+
+            int packed = successors.stateAt(i);
+            int heuristicEstimate = heuristic.estimateAfterMove(
+                    current.getHeuristicEstimate(), successors.moveAt(i), packed);
+            int estimate = estimate(packed, heuristicEstimate);
+            if (estimate == Heuristic.DEAD_END) {
+                continue;
+            }
 
-            int successorCost = successor.getTotalCost(targetState);
+            int pathCost = current.getPathCost() + successors.costAt(i);
+            int successorCost = pathCost + estimate;
             if (successorCost > currentThreshold) {
                 nextThreshold = Math.min(nextThreshold, successorCost);
+                cheapest = Math.min(cheapest, successorCost);
                 continue;
             }
 
-            if (handleDuplicateState(successor)) {
+            if (isTransposition(packed, pathCost) || handleDuplicateState(packed, pathCost)) {
+                metrics.countDuplicate();
+                cheapest = Math.min(cheapest, successorCost);
                 continue;
             }
 
-            if (successor.equals(targetState)) {
+            BoardState successor = current.successor(successors, i);
+            successor.setPreviousState(current);
+            successor.setHeuristicEstimate(heuristicEstimate);
+            if (packed == targetState.getPackedState()) {
                 return handleSolutionFound(successor);
             }
 
             addToSearchStructures(successor);
         }
 
+        subtreeCosts[rank] = Math.min(subtreeCosts[rank], cheapest);
         return false;
     }
 
     private void addToSearchStructures(BoardState state) {
         searchStack.push(state);
-        visitedStates.add(state);
+        remember(state, 0);
     }
 
-    private boolean handleDuplicateState(BoardState newState) {
-        if (!visitedStates.contains(newState)) {
-            return false;
-        }
+    private boolean isTransposition(int packed, int pathCost) {
+        return transpositions != null && transpositions.dominates(packed, pathCost, iteration);
+    }
 
-        BoardState existingState = findStateInStack(newState);
+    private boolean handleDuplicateState(int packed, int pathCost) {
+        BoardState existingState = searchStack.get(packed);
         if (existingState == null) {
-            return true;
+            return false;
         }
 
-        if (existingState.marked) {
+        if (expanded.get(index.rank(packed))) {
             return true;
         }
 
-        if (existingState.getTotalCost(targetState) > newState.getTotalCost(targetState)) {
-            searchStack.remove(existingState);
-            visitedStates.remove(newState);
+        if (existingState.getPathCost() > pathCost) {
+            contribute(existingState.getPreviousState(),
+                    existingState.getPathCost() + estimate(packed, existingState.getHeuristicEstimate()));
+            searchStack.remove(packed);
             return false;
         }
 
         return true;
     }
 
-    private BoardState findStateInStack(BoardState target) {
-        for (BoardState state : searchStack) {
-            if (state.equals(target)) {
-                return state;
-            }
-        }
-        return null;
-    }
-
     private boolean handleSolutionFound(BoardState goalState) {
         totalCost = goalState.getPathCost();
         constructSolutionPath(goalState);
@@ -171,23 +256,35 @@ public class IDAstarSolver extends GameSolver {
     }
 
     private void constructSolutionPath(BoardState goalState) {
-        for (BoardState state : searchStack) {
-            if (state.marked && state.getLastMove() != null) {
-                solutionPath.append(state.getLastMove().toString()).append("--");
-            }
+        metrics.enterPhase(SearchMetrics.Phase.RECONSTRUCTION);
+        Deque<String> moves = new ArrayDeque<>();
+        for (BoardState state = goalState; state.getLastMove() != null; state = state.getPreviousState()) {
+            moves.push(state.getLastMove().toString());
         }
-        solutionPath.append(goalState.getLastMove().toString()).append("\n");
+        solutionPath.append(String.join("--", moves)).append("\n");
     }
 
     private void displayCurrentOpenList() {
+        if (isTracing()) {
+            SearchTrace.Sample sample = sampleOpenList();
+            if (sample != null) {
+                for (BoardState state : searchStack) {
+                    if (!expanded.get(index.rank(state))) {
+                        sample.add(state.getPackedState());
+                    }
+                }
+                sample.submit(0);
+            }
+            return;
+        }
         System.out.println("Open List Status:");
         System.out.println("----------------------------------------");
-        searchStack.stream()
-                .filter(state -> !state.marked)
-                .forEach(state -> {
-                    state.displayBoard();
-                    System.out.println();
-                });
+        for (BoardState state : searchStack) {
+            if (!expanded.get(index.rank(state))) {
+                state.displayBoard();
+                System.out.println();
+            }
+        }
         System.out.println("----------------------------------------");
     }
 
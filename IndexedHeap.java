@@ -0,0 +1,221 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public class IndexedHeap implements OpenList {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final StateIndex index;
+    private int[] slotOfRank;
+    private BoardState[] nodes = new BoardState[INITIAL_CAPACITY];
+    private int[] priorities = new int[INITIAL_CAPACITY];
+    private int[] ranks = new int[INITIAL_CAPACITY];
+    private int size;
+
+    public IndexedHeap(StateIndex index) {
+        this.index = index;
+        // Slots are stored off by one so that a zero entry means "not in the heap".
+        this.slotOfRank = new int[index.size()];
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(BoardState state) {
+        return slotOf(index.rank(state)) >= 0;
+    }
+
+    @Override
+    public BoardState get(BoardState state) {
+        return get(state.getPackedState());
+    }
+
+    @Override
+    public BoardState get(int packedState) {
+        int slot = slotOf(index.rank(packedState));
+        return slot < 0 ? null : nodes[slot];
+    }
+
+    @Override
+    public int priorityOf(BoardState state) {
+        int slot = slotOf(index.rank(state));
+        if (slot < 0) {
+            throw new NoSuchElementException("State is not in the heap");
+        }
+        return priorities[slot];
+    }
+
+    @Override
+    public void add(BoardState state, int priority) {
+        int rank = index.rank(state);
+        if (slotOf(rank) >= 0) {
+            throw new IllegalStateException("State is already in the heap");
+        }
+        if (rank >= slotOfRank.length) {
+            slotOfRank = Arrays.copyOf(slotOfRank, Math.max(rank + 1, slotOfRank.length << 1));
+        }
+        ensureCapacity();
+        place(size, state, priority, rank);
+        siftUp(size++);
+    }
+
+    public BoardState peek() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return nodes[0];
+    }
+
+    @Override
+    public int peekPriority() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return priorities[0];
+    }
+
+    @Override
+    public BoardState poll() {
+        if (size == 0) {
+            return null;
+        }
+        BoardState top = nodes[0];
+        removeAt(0);
+        return top;
+    }
+
+    public boolean remove(BoardState state) {
+        int slot = slotOf(index.rank(state));
+        if (slot < 0) {
+            return false;
+        }
+        removeAt(slot);
+        return true;
+    }
+
+    @Override
+    public void decreaseKey(BoardState replacement, int priority) {
+        int rank = index.rank(replacement);
+        int slot = slotOf(rank);
+        if (slot < 0) {
+            throw new NoSuchElementException("State is not in the heap");
+        }
+        if (priority > priorities[slot]) {
+            throw new IllegalArgumentException("New priority is larger than the current one");
+        }
+        place(slot, replacement, priority, rank);
+        siftUp(slot);
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            slotOfRank[ranks[i]] = 0;
+            nodes[i] = null;
+        }
+        size = 0;
+    }
+
+    private int slotOf(int rank) {
+        return rank < slotOfRank.length ? slotOfRank[rank] - 1 : -1;
+    }
+
+    private void removeAt(int slot) {
+        slotOfRank[ranks[slot]] = 0;
+        int last = --size;
+        if (slot != last) {
+            place(slot, nodes[last], priorities[last], ranks[last]);
+            nodes[last] = null;
+            siftDown(slot);
+            siftUp(slot);
+        } else {
+            nodes[last] = null;
+        }
+    }
+
+    private void siftUp(int slot) {
+        BoardState node = nodes[slot];
+        int priority = priorities[slot];
+        int rank = ranks[slot];
+
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (!precedes(priority, node, priorities[parent], nodes[parent])) {
+                break;
+            }
+            place(slot, nodes[parent], priorities[parent], ranks[parent]);
+            slot = parent;
+        }
+        place(slot, node, priority, rank);
+    }
+
+    private void siftDown(int slot) {
+        BoardState node = nodes[slot];
+        int priority = priorities[slot];
+        int rank = ranks[slot];
+        int half = size >>> 1;
+
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if (right < size && precedes(priorities[right], nodes[right], priorities[child], nodes[child])) {
+                child = right;
+            }
+            if (!precedes(priorities[child], nodes[child], priority, node)) {
+                break;
+            }
+            place(slot, nodes[child], priorities[child], ranks[child]);
+            slot = child;
+        }
+        place(slot, node, priority, rank);
+    }
+
+    private boolean precedes(int priority, BoardState node, int otherPriority, BoardState other) {
+        if (priority != otherPriority) {
+            return priority < otherPriority;
+        }
+        return node.getSequence() < other.getSequence();
+    }
+
+    private void place(int slot, BoardState node, int priority, int rank) {
+        nodes[slot] = node;
+        priorities[slot] = priority;
+        ranks[slot] = rank;
+        slotOfRank[rank] = slot + 1;
+    }
+
+    private void ensureCapacity() {
+        if (size == nodes.length) {
+            int capacity = nodes.length << 1;
+            nodes = Arrays.copyOf(nodes, capacity);
+            priorities = Arrays.copyOf(priorities, capacity);
+            ranks = Arrays.copyOf(ranks, capacity);
+        }
+    }
+
+    @Override
+    public Iterator<BoardState> iterator() {
+        return new Iterator<>() {
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                return position < size;
+            }
+
+            @Override
+            public BoardState next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return nodes[position++];
+            }
+        };
+    }
+}
@@ -0,0 +1,114 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class IndexedHeapTest {
+    private static final BoardState REFERENCE = new BoardState("GBX_XB_R_");
+    private static final StateIndex INDEX = StateIndex.forBoard(REFERENCE);
+
+    @Test
+    void pollsInPriorityOrder() {
+        IndexedHeap heap = new IndexedHeap(INDEX);
+        Random random = new Random(3);
+        for (int rank = 0; rank < INDEX.size(); rank++) {
+            heap.add(stateAt(rank), random.nextInt(50));
+        }
+
+        int previous = Integer.MIN_VALUE;
+        int polled = 0;
+        while (!heap.isEmpty()) {
+            int priority = heap.peekPriority();
+            BoardState state = heap.poll();
+            assertTrue(priority >= previous);
+            assertFalse(heap.contains(state));
+            previous = priority;
+            polled++;
+        }
+        assertEquals(INDEX.size(), polled);
+        assertNull(heap.poll());
+    }
+
+    @Test
+    void decreaseKeyReordersAndReplacesTheState() {
+        IndexedHeap heap = new IndexedHeap(INDEX);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(5);
+        for (int rank = 0; rank < INDEX.size(); rank++) {
+            int priority = 100 + random.nextInt(100);
+            heap.add(stateAt(rank), priority);
+            expected.put(rank, priority);
+        }
+
+        for (int i = 0; i < 300; i++) {
+            int rank = random.nextInt(INDEX.size());
+            int priority = expected.get(rank) - random.nextInt(20);
+            BoardState replacement = stateAt(rank);
+            heap.decreaseKey(replacement, priority);
+            expected.put(rank, priority);
+            assertSame(replacement, heap.get(replacement));
+            assertEquals(priority, heap.priorityOf(replacement));
+        }
+
+        BoardState lowest = stateAt(0);
+        heap.decreaseKey(lowest, 0);
+        assertSame(lowest, heap.peek());
+
+        int previous = Integer.MIN_VALUE;
+        while (!heap.isEmpty()) {
+            int priority = heap.peekPriority();
+            int rank = INDEX.rank(heap.poll());
+            assertEquals(rank == 0 ? 0 : expected.get(rank), priority);
+            assertTrue(priority >= previous);
+            previous = priority;
+        }
+    }
+
+    @Test
+    void removeKeepsTheRestOrdered() {
+        IndexedHeap heap = new IndexedHeap(INDEX);
+        for (int rank = 0; rank < 40; rank++) {
+            heap.add(stateAt(rank), 40 - rank);
+        }
+        for (int rank = 0; rank < 40; rank += 3) {
+            assertTrue(heap.remove(stateAt(rank)));
+        }
+        assertFalse(heap.remove(stateAt(0)));
+
+        int previous = Integer.MIN_VALUE;
+        while (!heap.isEmpty()) {
+            int priority = heap.peekPriority();
+            assertTrue(INDEX.rank(heap.poll()) % 3 != 0);
+            assertTrue(priority >= previous);
+            previous = priority;
+        }
+    }
+
+    @Test
+    void rejectsInvalidUpdates() {
+        IndexedHeap heap = new IndexedHeap(INDEX);
+        heap.add(stateAt(1), 10);
+        assertThrows(IllegalStateException.class, () -> heap.add(stateAt(1), 5));
+        assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(stateAt(1), 11));
+        assertThrows(NoSuchElementException.class, () -> heap.decreaseKey(stateAt(2), 1));
+        assertThrows(NoSuchElementException.class, () -> heap.priorityOf(stateAt(2)));
+    }
+
+    private static BoardState stateAt(int rank) {
+        int packed = INDEX.unrank(rank);
+        StringBuilder cells = new StringBuilder();
+        for (int cell = 0; cell < 9; cell++) {
+            cells.append("_XGRB".charAt(BoardState.cellOf(packed, cell)));
+        }
+        return new BoardState(cells.toString());
+    }
+}
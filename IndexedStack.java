@@ -0,0 +1,139 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Depth-first frontier with a rank-to-slot index, so finding or removing a
+// state anywhere in the stack takes constant time. Removed slots are left
+// as tombstones and dropped once they reach the top.
+public class IndexedStack implements Iterable<BoardState> {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final StateIndex index;
+    private int[] slotOfRank;
+    private BoardState[] nodes = new BoardState[INITIAL_CAPACITY];
+    private int[] ranks = new int[INITIAL_CAPACITY];
+    private int top;
+    private int size;
+
+    public IndexedStack(StateIndex index) {
+        this.index = index;
+        // Slots are stored off by one so that a zero entry means "not in the stack".
+        this.slotOfRank = new int[index.size()];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int packedState) {
+        return slotOf(index.rank(packedState)) >= 0;
+    }
+
+    public BoardState get(int packedState) {
+        int slot = slotOf(index.rank(packedState));
+        return slot < 0 ? null : nodes[slot];
+    }
+
+    public void push(BoardState state) {
+        int rank = index.rank(state);
+        if (slotOf(rank) >= 0) {
+            throw new IllegalStateException("State is already on the stack");
+        }
+        if (rank >= slotOfRank.length) {
+            slotOfRank = Arrays.copyOf(slotOfRank, Math.max(rank + 1, slotOfRank.length << 1));
+        }
+        if (top == nodes.length) {
+            nodes = Arrays.copyOf(nodes, top << 1);
+            ranks = Arrays.copyOf(ranks, top << 1);
+        }
+        nodes[top] = state;
+        ranks[top] = rank;
+        slotOfRank[rank] = ++top;
+        size++;
+    }
+
+    public BoardState peek() {
+        dropTombstones();
+        if (top == 0) {
+            throw new NoSuchElementException();
+        }
+        return nodes[top - 1];
+    }
+
+    public BoardState pop() {
+        BoardState state = peek();
+        removeAt(top - 1);
+        dropTombstones();
+        return state;
+    }
+
+    public boolean remove(int packedState) {
+        int slot = slotOf(index.rank(packedState));
+        if (slot < 0) {
+            return false;
+        }
+        removeAt(slot);
+        return true;
+    }
+
+    public void clear() {
+        for (int i = 0; i < top; i++) {
+            if (nodes[i] != null) {
+                slotOfRank[ranks[i]] = 0;
+                nodes[i] = null;
+            }
+        }
+        top = 0;
+        size = 0;
+    }
+
+    private int slotOf(int rank) {
+        return rank < slotOfRank.length ? slotOfRank[rank] - 1 : -1;
+    }
+
+    private void removeAt(int slot) {
+        slotOfRank[ranks[slot]] = 0;
+        nodes[slot] = null;
+        size--;
+    }
+
+    private void dropTombstones() {
+        while (top > 0 && nodes[top - 1] == null) {
+            top--;
+        }
+    }
+
+    // Walks the live states from the bottom of the stack to the top.
+    @Override
+    public Iterator<BoardState> iterator() {
+        return new Iterator<>() {
+            private int position = skipTombstones(0);
+
+            @Override
+            public boolean hasNext() {
+                return position < top;
+            }
+
+            @Override
+            public BoardState next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                BoardState state = nodes[position];
+                position = skipTombstones(position + 1);
+                return state;
+            }
+        };
+    }
+
+    private int skipTombstones(int position) {
+        while (position < top && nodes[position] == null) {
+            position++;
+        }
+        return position;
+    }
+}
@@ -0,0 +1,73 @@
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+public class IndexedStateSet implements StateSet {
+    private final StateIndex index;
+    private final BitSet members;
+    private int size;
+
+    public IndexedStateSet(StateIndex index) {
+        this.index = index;
+        this.members = new BitSet(index.size());
+    }
+
+    @Override
+    public boolean add(BoardState state) {
+        return add(state.getPackedState());
+    }
+
+    @Override
+    public boolean contains(BoardState state) {
+        return contains(state.getPackedState());
+    }
+
+    @Override
+    public boolean remove(BoardState state) {
+        return remove(state.getPackedState());
+    }
+
+    @Override
+    public boolean add(int packedState) {
+        int rank = index.rank(packedState);
+        if (members.get(rank)) {
+            return false;
+        }
+        members.set(rank);
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean contains(int packedState) {
+        return members.get(index.rank(packedState));
+    }
+
+    @Override
+    public boolean remove(int packedState) {
+        int rank = index.rank(packedState);
+        if (!members.get(rank)) {
+            return false;
+        }
+        members.clear(rank);
+        size--;
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        members.clear();
+        size = 0;
+    }
+
+    @Override
+    public void forEach(IntConsumer action) {
+        for (int rank = members.nextSetBit(0); rank >= 0; rank = members.nextSetBit(rank + 1)) {
+            action.accept(index.unrank(rank));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+public class MatchingHeuristic implements Heuristic {
+    private static final int WALL = 1;
+    private static final int CELLS = 9;
+    private static final int FIRST_GEM = 2;
+    private static final int GEM_TYPES = 3;
+    private static final int UNREACHABLE = Integer.MAX_VALUE / 4;
+
+    // assignmentCost[colour][mask]: cheapest way to move the gems occupying
+    // "mask" onto that colour's target cells, or DEAD_END if impossible.
+    private final int[][] assignmentCost = new int[GEM_TYPES][1 << CELLS];
+
+    public MatchingHeuristic(BoardState target) {
+        BoardGeometry.requireStandard(target, "The matching heuristic");
+        int targetPacked = target.getPackedState();
+        int[][] distances = computeDistances(targetPacked);
+
+        for (int colour = 0; colour < GEM_TYPES; colour++) {
+            int gemType = FIRST_GEM + colour;
+            int[] targets = cellsHolding(targetPacked, gemType);
+            int moveCost = BoardState.getGemValue(gemType);
+            for (int mask = 0; mask < (1 << CELLS); mask++) {
+                assignmentCost[colour][mask] = Integer.bitCount(mask) == targets.length
+                        ? solveAssignment(mask, targets, distances, moveCost)
+                        : DEAD_END;
+            }
+        }
+    }
+
+    @Override
+    public int estimate(int packedState) {
+        int emeralds = 0;
+        int rubies = 0;
+        int sapphires = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            switch (BoardState.cellOf(packedState, cell)) {
+                case 2 -> emeralds |= 1 << cell;
+                case 3 -> rubies |= 1 << cell;
+                case 4 -> sapphires |= 1 << cell;
+                default -> { }
+            }
+        }
+
+        int emeraldCost = assignmentCost[0][emeralds];
+        int rubyCost = assignmentCost[1][rubies];
+        int sapphireCost = assignmentCost[2][sapphires];
+        if (emeraldCost == DEAD_END || rubyCost == DEAD_END || sapphireCost == DEAD_END) {
+            return DEAD_END;
+        }
+        return emeraldCost + rubyCost + sapphireCost;
+    }
+
+    private static int solveAssignment(int mask, int[] targets, int[][] distances, int moveCost) {
+        int[] sources = new int[targets.length];
+        int count = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            if ((mask & (1 << cell)) != 0) {
+                sources[count++] = cell;
+            }
+        }
+
+        // best[used]: cheapest cost of matching the first bitCount(used) sources to the targets in "used".
+        int[] best = new int[1 << targets.length];
+        Arrays.fill(best, UNREACHABLE);
+        best[0] = 0;
+        for (int used = 0; used < best.length; used++) {
+            if (best[used] == UNREACHABLE || used == best.length - 1) {
+                continue;
+            }
+            int source = sources[Integer.bitCount(used)];
+            for (int t = 0; t < targets.length; t++) {
+                if ((used & (1 << t)) != 0 || distances[source][targets[t]] == UNREACHABLE) {
+                    continue;
+                }
+                int next = used | (1 << t);
+                best[next] = Math.min(best[next], best[used] + distances[source][targets[t]]);
+            }
+        }
+
+        int steps = best[best.length - 1];
+        return steps == UNREACHABLE ? DEAD_END : steps * moveCost;
+    }
+
+    private static int[] cellsHolding(int packedState, int gemType) {
+        return IntStream.range(0, CELLS)
+                .filter(cell -> BoardState.cellOf(packedState, cell) == gemType)
+                .toArray();
+    }
+
+    private static int[][] computeDistances(int packedState) {
+        int[][] distances = new int[CELLS][CELLS];
+        for (int start = 0; start < CELLS; start++) {
+            Arrays.fill(distances[start], UNREACHABLE);
+            if (BoardState.cellOf(packedState, start) == WALL) {
+                continue;
+            }
+
+            ArrayDeque<Integer> frontier = new ArrayDeque<>();
+            distances[start][start] = 0;
+            frontier.add(start);
+            while (!frontier.isEmpty()) {
+                int cell = frontier.poll();
+                for (int direction = 0; direction < 4; direction++) {
+                    int neighbour = BoardState.neighbourOf(cell, direction);
+                    if (BoardState.cellOf(packedState, neighbour) != WALL
+                            && distances[start][neighbour] == UNREACHABLE) {
+                        distances[start][neighbour] = distances[start][cell] + 1;
+                        frontier.add(neighbour);
+                    }
+                }
+            }
+        }
+        return distances;
+    }
+}
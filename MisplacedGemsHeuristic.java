@@ -0,0 +1,47 @@
+// Sum of the costs of the gems that are not on their target cell. A move
+// only changes its source and target cells, so a successor's value is its
+// parent's adjusted by what the moved gem costs on each of the two cells.
+public class MisplacedGemsHeuristic implements Heuristic {
+    private static final int CELL_VALUES = 5;
+
+    private final BoardGeometry geometry;
+    private final int targetPacked;
+    // Cost of a gem standing on a cell, by cell * CELL_VALUES + gem; zero
+    // on the gem's own target cell.
+    private final int[] misplacedCost;
+
+    public MisplacedGemsHeuristic(BoardState target) {
+        this.geometry = target.getGeometry();
+        this.targetPacked = target.getPackedState();
+        this.misplacedCost = new int[geometry.getCellCount() * CELL_VALUES];
+        for (int cell = 0; cell < geometry.getCellCount(); cell++) {
+            int wanted = geometry.cellOf(targetPacked, cell);
+            for (int gem = 0; gem < CELL_VALUES; gem++) {
+                misplacedCost[cell * CELL_VALUES + gem] = gem == wanted ? 0 : BoardState.getGemValue(gem);
+            }
+        }
+    }
+
+    @Override
+    public int estimate(int packedState) {
+        if (!geometry.isStandard()) {
+            return geometry.misplacedCost(packedState, targetPacked);
+        }
+        int total = 0;
+        for (int cell = 0; cell < 9; cell++) {
+            int value = BoardState.cellOf(packedState, cell);
+            if (value != BoardState.cellOf(targetPacked, cell)) {
+                total += BoardState.getGemValue(value);
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public int estimateAfterMove(int parentEstimate, int packedMove, int packedState) {
+        int gem = Move.gemOf(packedMove);
+        return parentEstimate
+                + misplacedCost[Move.targetOf(packedMove) * CELL_VALUES + gem]
+                - misplacedCost[Move.sourceOf(packedMove) * CELL_VALUES + gem];
+    }
+}
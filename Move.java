@@ -1,6 +1,16 @@
 import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class Move {
+    private static final Pattern TEXT_FORMAT = Pattern.compile("\\((\\d+),(\\d+)\\):([GRB]):\\((\\d+),(\\d+)\\)");
+
+    // Packed moves are (gem << 24) | (source cell << 12) | target cell, with
+    // cells numbered row * columns + col.
+    public static final int NONE = -1;
+    private static final int CELL_BITS = 12;
+    private static final int CELL_MASK = (1 << CELL_BITS) - 1;
+
     private final int[] source = new int[2];
     private final int[] target = new int[2];
     private final int gemType;
@@ -53,6 +63,51 @@ public class Move {
                 source[0] + 1, source[1] + 1, gemSymbol, target[0] + 1, target[1] + 1);
     }
 
+    public static int pack(int sourceCell, int targetCell, int gem) {
+        return (gem << (2 * CELL_BITS)) | (sourceCell << CELL_BITS) | targetCell;
+    }
+
+    public static int sourceOf(int packedMove) {
+        return (packedMove >>> CELL_BITS) & CELL_MASK;
+    }
+
+    public static int targetOf(int packedMove) {
+        return packedMove & CELL_MASK;
+    }
+
+    public static int gemOf(int packedMove) {
+        return packedMove >>> (2 * CELL_BITS);
+    }
+
+    public static int reverseOf(int packedMove) {
+        return pack(targetOf(packedMove), sourceOf(packedMove), gemOf(packedMove));
+    }
+
+    public static Move unpack(int packedMove, int columns) {
+        int source = sourceOf(packedMove);
+        int target = targetOf(packedMove);
+        return new Move(source / columns, source % columns, target / columns, target % columns, gemOf(packedMove));
+    }
+
+    public static Move parse(String text) {
+        Matcher matcher = TEXT_FORMAT.matcher(text.trim());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid move: " + text);
+        }
+
+        int gem = switch (matcher.group(3)) {
+            case "G" -> 2;
+            case "R" -> 3;
+            default -> 4;
+        };
+        return new Move(Integer.parseInt(matcher.group(1)) - 1, Integer.parseInt(matcher.group(2)) - 1,
+                Integer.parseInt(matcher.group(4)) - 1, Integer.parseInt(matcher.group(5)) - 1, gem);
+    }
+
+    public Move reverse() {
+        return new Move(target[0], target[1], source[0], source[1], gemType);
+    }
+
     public boolean isReverse(Move other) {
         if (other == null) return false;
         return Arrays.equals(this.source, other.target) &&
@@ -0,0 +1,28 @@
+// Best known path cost of each reached state, with the move that reached
+// it at that cost, in an off-heap table. The moves let a solver rebuild
+// its path without keeping parent BoardStates alive.
+public class OffHeapCostMap extends OffHeapTable {
+    public static final int ABSENT = -1;
+    private static final int COST = 1;
+    private static final int MOVE = 2;
+
+    public OffHeapCostMap(long expectedSize) {
+        super(3, expectedSize);
+    }
+
+    public int costOf(int packedState) {
+        long slot = find(packedState);
+        return slot < 0 ? ABSENT : field(slot, COST);
+    }
+
+    public int moveOf(int packedState) {
+        long slot = find(packedState);
+        return slot < 0 ? Move.NONE : field(slot, MOVE);
+    }
+
+    public void put(int packedState, int cost, int packedMove) {
+        long slot = insert(packedState);
+        setField(slot, COST, cost);
+        setField(slot, MOVE, packedMove);
+    }
+}
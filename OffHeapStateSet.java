@@ -0,0 +1,51 @@
+import java.util.function.IntConsumer;
+
+// StateSet over an off-heap table, for closed and pending sets too large
+// to keep on the Java heap.
+public class OffHeapStateSet extends OffHeapTable implements StateSet {
+    public OffHeapStateSet(long expectedSize) {
+        super(1, expectedSize);
+    }
+
+    @Override
+    public boolean add(BoardState state) {
+        return add(state.getPackedState());
+    }
+
+    @Override
+    public boolean contains(BoardState state) {
+        return contains(state.getPackedState());
+    }
+
+    @Override
+    public boolean remove(BoardState state) {
+        return remove(state.getPackedState());
+    }
+
+    @Override
+    public boolean add(int packedState) {
+        long before = entryCount();
+        insert(packedState);
+        return entryCount() > before;
+    }
+
+    @Override
+    public boolean contains(int packedState) {
+        return find(packedState) >= 0;
+    }
+
+    @Override
+    public boolean remove(int packedState) {
+        return delete(packedState);
+    }
+
+    @Override
+    public int size() {
+        return Math.toIntExact(entryCount());
+    }
+
+    @Override
+    public void forEach(IntConsumer action) {
+        forEachKey(action);
+    }
+}
@@ -0,0 +1,213 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.function.IntConsumer;
+
+// Linear-probing hash table of fixed-size int records kept in direct
+// buffers outside the Java heap, so the collector sees a handful of
+// buffer objects however many states are stored. The first int of a
+// record is its key, a non-negative state stored plus one so that zero
+// marks a free slot. The slots are split over several buffers because one
+// buffer holds at most 2 GB. Direct memory is capped by
+// -XX:MaxDirectMemorySize.
+public abstract class OffHeapTable {
+    private static final int SEGMENT_SHIFT = 28;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+    private static final long MIN_SLOTS = 64;
+    private static final long MAX_SLOTS = 1L << 34;
+    private static final int FREE = 0;
+
+    private final int recordInts;
+    private IntBuffer[] segments;
+    private long slots;
+    private long mask;
+    private long size;
+
+    protected OffHeapTable(int recordInts, long expectedEntries) {
+        this.recordInts = recordInts;
+        allocate(slotsFor(expectedEntries));
+    }
+
+    public long entryCount() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Entries the table takes before it has to grow.
+    public long capacity() {
+        return maxEntries(slots);
+    }
+
+    public long memoryBytes() {
+        return slots * recordInts * Integer.BYTES;
+    }
+
+    // Grows the table once up front instead of doubling repeatedly.
+    public void ensureCapacity(long entries) {
+        if (entries > capacity()) {
+            resize(slotsFor(entries));
+        }
+    }
+
+    // Drops every entry; the table keeps its current number of slots.
+    public void clear() {
+        allocate(slots);
+    }
+
+    protected void forEachKey(IntConsumer action) {
+        for (long slot = 0; slot < slots; slot++) {
+            int stored = read(slot * recordInts);
+            if (stored != FREE) {
+                action.accept(stored - 1);
+            }
+        }
+    }
+
+    // The slot holding the key, or -1.
+    protected long find(int key) {
+        long slot = probe(key);
+        return read(slot * recordInts) == FREE ? -1 : slot;
+    }
+
+    // The slot holding the key, claiming a free one if it is new.
+    protected long insert(int key) {
+        long slot = probe(key);
+        if (read(slot * recordInts) != FREE) {
+            return slot;
+        }
+        if (size + 1 > capacity()) {
+            resize(slots << 1);
+            slot = probe(key);
+        }
+        write(slot * recordInts, key + 1);
+        size++;
+        return slot;
+    }
+
+    protected boolean delete(int key) {
+        long slot = find(key);
+        if (slot < 0) {
+            return false;
+        }
+        closeGap(slot);
+        size--;
+        return true;
+    }
+
+    protected int field(long slot, int field) {
+        return read(slot * recordInts + field);
+    }
+
+    protected void setField(long slot, int field, int value) {
+        write(slot * recordInts + field, value);
+    }
+
+    private long probe(int key) {
+        int stored = key + 1;
+        long slot = spread(key) & mask;
+        while (true) {
+            int occupant = read(slot * recordInts);
+            if (occupant == FREE || occupant == stored) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    // Backward-shift deletion, as in PackedStateSet, moving whole records.
+    private void closeGap(long gap) {
+        long slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            int stored = read(slot * recordInts);
+            if (stored == FREE) {
+                break;
+            }
+            long home = spread(stored - 1) & mask;
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                copyRecord(slot, gap);
+                gap = slot;
+            }
+        }
+        for (int i = 0; i < recordInts; i++) {
+            write(gap * recordInts + i, FREE);
+        }
+    }
+
+    private void copyRecord(long from, long to) {
+        for (int i = 0; i < recordInts; i++) {
+            write(to * recordInts + i, read(from * recordInts + i));
+        }
+    }
+
+    private void resize(long newSlots) {
+        if (newSlots > MAX_SLOTS) {
+            throw new IllegalStateException("Off-heap table cannot grow past " + MAX_SLOTS + " slots");
+        }
+        IntBuffer[] previous = segments;
+        long previousSlots = slots;
+        long entries = size;
+        allocate(newSlots);
+        size = entries;
+        for (long slot = 0; slot < previousSlots; slot++) {
+            long base = slot * recordInts;
+            int stored = read(previous, base);
+            if (stored == FREE) {
+                continue;
+            }
+            long target = probe(stored - 1) * recordInts;
+            for (int i = 0; i < recordInts; i++) {
+                write(target + i, read(previous, base + i));
+            }
+        }
+    }
+
+    // Fresh direct buffers are zeroed, so every slot starts out free.
+    private void allocate(long slotCount) {
+        long ints = slotCount * recordInts;
+        int segmentCount = (int) ((ints + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+        IntBuffer[] fresh = new IntBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long length = Math.min(1L << SEGMENT_SHIFT, ints - ((long) i << SEGMENT_SHIFT));
+            fresh[i] = ByteBuffer.allocateDirect(Math.toIntExact(length * Integer.BYTES))
+                    .order(ByteOrder.nativeOrder()).asIntBuffer();
+        }
+        segments = fresh;
+        slots = slotCount;
+        mask = slotCount - 1;
+        size = 0;
+    }
+
+    private int read(long index) {
+        return read(segments, index);
+    }
+
+    private static int read(IntBuffer[] buffers, long index) {
+        return buffers[(int) (index >>> SEGMENT_SHIFT)].get((int) (index & SEGMENT_MASK));
+    }
+
+    private void write(long index, int value) {
+        segments[(int) (index >>> SEGMENT_SHIFT)].put((int) (index & SEGMENT_MASK), value);
+    }
+
+    // Three quarters full at most.
+    private static long maxEntries(long slotCount) {
+        return slotCount - (slotCount >>> 2);
+    }
+
+    private static long slotsFor(long entries) {
+        long slotCount = MIN_SLOTS;
+        while (maxEntries(slotCount) < entries && slotCount < MAX_SLOTS) {
+            slotCount <<= 1;
+        }
+        return slotCount;
+    }
+
+    private static long spread(int key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+}
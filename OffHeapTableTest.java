@@ -0,0 +1,161 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class OffHeapTableTest {
+    // Three-int records with delete exposed, so moves during backward-shift
+    // deletion have to carry every field of a record along.
+    private static final class Records extends OffHeapTable {
+        Records(long expectedEntries) {
+            super(3, expectedEntries);
+        }
+
+        void put(int key, int first, int second) {
+            long slot = insert(key);
+            setField(slot, 1, first);
+            setField(slot, 2, second);
+        }
+
+        int first(int key) {
+            long slot = find(key);
+            return slot < 0 ? -1 : field(slot, 1);
+        }
+
+        int second(int key) {
+            long slot = find(key);
+            return slot < 0 ? -1 : field(slot, 2);
+        }
+
+        boolean remove(int key) {
+            return delete(key);
+        }
+    }
+
+    @Test
+    void growsFromTheSmallestSizeKeepingEveryRecord() {
+        Records table = new Records(1);
+        long initialCapacity = table.capacity();
+        for (int key = 0; key < 10_000; key++) {
+            table.put(key, key * 3, ~key);
+        }
+
+        assertEquals(10_000, table.entryCount());
+        assertTrue(table.capacity() >= 10_000 && table.capacity() > initialCapacity);
+        assertEquals(table.capacity() * 4 / 3 * 3 * Integer.BYTES, table.memoryBytes());
+        for (int key = 0; key < 10_000; key++) {
+            assertEquals(key * 3, table.first(key));
+            assertEquals(~key, table.second(key));
+        }
+        assertEquals(-1, table.first(10_000));
+    }
+
+    @Test
+    void deletingReprobesTheRestOfTheCluster() {
+        // 48 keys fill the smallest table to its limit, so probe chains
+        // overlap and most deletions have to shift records back.
+        Records table = new Records(48);
+        long capacity = table.capacity();
+        Random random = new Random(23);
+        int[] keys = random.ints(0, 1 << 27).distinct().limit(capacity).toArray();
+        for (int key : keys) {
+            table.put(key, key + 1, key + 2);
+        }
+        assertEquals(capacity, table.capacity());
+
+        for (int i = 0; i < keys.length; i += 2) {
+            assertTrue(table.remove(keys[i]));
+            assertFalse(table.remove(keys[i]));
+        }
+        for (int i = 0; i < keys.length; i++) {
+            boolean kept = i % 2 == 1;
+            assertEquals(kept ? keys[i] + 1 : -1, table.first(keys[i]));
+            assertEquals(kept ? keys[i] + 2 : -1, table.second(keys[i]));
+        }
+
+        for (int i = 0; i < keys.length; i += 2) {
+            table.put(keys[i], 7, 8);
+        }
+        assertEquals(keys.length, table.entryCount());
+        assertEquals(capacity, table.capacity());
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i % 2 == 1 ? keys[i] + 1 : 7, table.first(keys[i]));
+        }
+    }
+
+    @Test
+    void matchesHashSetUnderRandomOperations() {
+        OffHeapStateSet set = new OffHeapStateSet(1);
+        Set<Integer> reference = new HashSet<>();
+        Random random = new Random(29);
+        for (int i = 0; i < 200_000; i++) {
+            // A narrow key range first, for many repeats and removals.
+            int key = random.nextInt(i < 100_000 ? 1 << 12 : 1 << 27);
+            switch (random.nextInt(4)) {
+                case 0, 1 -> assertEquals(reference.add(key), set.add(key));
+                case 2 -> assertEquals(reference.remove(key), set.remove(key));
+                default -> assertEquals(reference.contains(key), set.contains(key));
+            }
+            assertEquals(reference.size(), set.size());
+        }
+
+        Set<Integer> iterated = new HashSet<>();
+        set.forEach(iterated::add);
+        assertEquals(reference, iterated);
+    }
+
+    @Test
+    void costMapOverwritesAndSurvivesGrowth() {
+        OffHeapCostMap map = new OffHeapCostMap(1);
+        Map<Integer, Integer> reference = new HashMap<>();
+        Random random = new Random(31);
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(1 << 20);
+            int cost = random.nextInt(1000);
+            map.put(key, cost, Move.pack(cost % 9, (cost + 1) % 9, 2));
+            reference.put(key, cost);
+        }
+
+        assertEquals(reference.size(), map.entryCount());
+        reference.forEach((key, cost) -> {
+            assertEquals(cost, map.costOf(key));
+            assertEquals(Move.pack(cost % 9, (cost + 1) % 9, 2), map.moveOf(key));
+        });
+        assertEquals(OffHeapCostMap.ABSENT, map.costOf(1 << 21));
+        assertEquals(Move.NONE, map.moveOf(1 << 21));
+    }
+
+    @Test
+    void keyZeroIsAnOrdinaryKey() {
+        OffHeapStateSet set = new OffHeapStateSet(1);
+        assertFalse(set.contains(0));
+        assertTrue(set.add(0));
+        assertTrue(set.contains(0));
+        assertTrue(set.remove(0));
+        assertFalse(set.contains(0));
+    }
+
+    @Test
+    void ensureCapacityPresizesAndClearKeepsTheSize() {
+        OffHeapStateSet set = new OffHeapStateSet(1);
+        set.ensureCapacity(100_000);
+        long capacity = set.capacity();
+        assertTrue(capacity >= 100_000);
+        for (int key = 0; key < 100_000; key++) {
+            set.add(key);
+        }
+        assertEquals(capacity, set.capacity());
+
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertEquals(capacity, set.capacity());
+        assertFalse(set.contains(5));
+    }
+}
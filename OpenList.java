@@ -0,0 +1,19 @@
+public interface OpenList extends Iterable<BoardState> {
+    boolean isEmpty();
+
+    int size();
+
+    void add(BoardState state, int priority);
+
+    BoardState poll();
+
+    int peekPriority();
+
+    BoardState get(BoardState state);
+
+    BoardState get(int packedState);
+
+    int priorityOf(BoardState state);
+
+    void decreaseKey(BoardState replacement, int priority);
+}
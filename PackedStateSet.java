@@ -0,0 +1,165 @@
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+public class PackedStateSet implements StateSet {
+    private static final int DEFAULT_CAPACITY = 64;
+    private static final int EMPTY_SLOT = 0;
+
+    private int[] slots;
+    private int mask;
+    private int size;
+    private boolean containsZero;
+
+    public PackedStateSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public PackedStateSet(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    @Override
+    public boolean add(BoardState state) {
+        return add(state.getPackedState());
+    }
+
+    @Override
+    public boolean contains(BoardState state) {
+        return contains(state.getPackedState());
+    }
+
+    @Override
+    public boolean remove(BoardState state) {
+        return remove(state.getPackedState());
+    }
+
+    @Override
+    public boolean add(int packed) {
+        if (packed == EMPTY_SLOT) {
+            if (containsZero) return false;
+            containsZero = true;
+            size++;
+            return true;
+        }
+
+        int slot = findSlot(packed);
+        if (slots[slot] == packed) {
+            return false;
+        }
+
+        slots[slot] = packed;
+        if (++size > (slots.length >> 1)) {
+            rehash(slots.length << 1);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean contains(int packed) {
+        if (packed == EMPTY_SLOT) {
+            return containsZero;
+        }
+        return slots[findSlot(packed)] == packed;
+    }
+
+    @Override
+    public boolean remove(int packed) {
+        if (packed == EMPTY_SLOT) {
+            if (!containsZero) return false;
+            containsZero = false;
+            size--;
+            return true;
+        }
+
+        int slot = findSlot(packed);
+        if (slots[slot] != packed) {
+            return false;
+        }
+
+        closeGap(slot);
+        size--;
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(slots, EMPTY_SLOT);
+        containsZero = false;
+        size = 0;
+    }
+
+    @Override
+    public void forEach(IntConsumer action) {
+        if (containsZero) {
+            action.accept(EMPTY_SLOT);
+        }
+        for (int packed : slots) {
+            if (packed != EMPTY_SLOT) {
+                action.accept(packed);
+            }
+        }
+    }
+
+    private int findSlot(int packed) {
+        int slot = spread(packed) & mask;
+        while (slots[slot] != EMPTY_SLOT && slots[slot] != packed) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Backward-shift deletion keeps linear probing chains intact without tombstones.
+    private void closeGap(int gap) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            int packed = slots[slot];
+            if (packed == EMPTY_SLOT) {
+                break;
+            }
+            int home = spread(packed) & mask;
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                slots[gap] = packed;
+                gap = slot;
+            }
+        }
+        slots[gap] = EMPTY_SLOT;
+    }
+
+    private void rehash(int newCapacity) {
+        int[] previous = slots;
+        allocate(newCapacity);
+        for (int packed : previous) {
+            if (packed != EMPTY_SLOT) {
+                slots[findSlot(packed)] = packed;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        slots = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    static int spread(int packed) {
+        int h = packed * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    static int tableSizeFor(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < (long) expectedSize * 2 && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,270 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ParallelAStarSolver extends GameSolver {
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    private final Heuristic heuristic;
+    private final int threadCount;
+    private Worker[] workers;
+    private int[] threadExpansions = new int[0];
+
+    // Busy workers plus messages still sitting in an inbox. Reaching zero
+    // means nothing can ever produce new work again.
+    private final AtomicInteger outstandingWork = new AtomicInteger();
+    private volatile boolean finished;
+    private volatile int incumbentCost = INFINITY;
+    private BoardState incumbent;
+
+    public ParallelAStarSolver(BoardState initial, BoardState target, boolean showOpenList) {
+        this(initial, target, showOpenList, Heuristic.misplacedGems(target),
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelAStarSolver(BoardState initial, BoardState target, boolean showOpenList,
+                               Heuristic heuristic, int threadCount) {
+        super(initial, target, showOpenList);
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count must be positive");
+        }
+        this.heuristic = heuristic;
+        this.threadCount = threadCount;
+    }
+
+    public int[] getThreadExpansions() {
+        return threadExpansions.clone();
+    }
+
+    @Override
+    protected void search() {
+        if (!validatePuzzle()) {
+            solutionPath.append("no path\n");
+            return;
+        }
+
+        if (initialState.equals(targetState)) {
+            solutionPath.append("start is the goal\n");
+            totalCost = 0;
+            return;
+        }
+
+        performSearch();
+
+        if (incumbent == null) {
+            solutionPath.append("no path\n");
+        } else {
+            totalCost = incumbent.getPathCost();
+            reconstructPath(incumbent);
+        }
+    }
+
+    private void performSearch() {
+        workers = new Worker[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            workers[i] = new Worker(i);
+        }
+
+        exploredStates = 0;
+        if (heuristic.estimate(initialState.getPackedState()) == Heuristic.DEAD_END) {
+            return;
+        }
+
+        outstandingWork.set(threadCount);
+        send(initialState);
+
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            threads[i] = new Thread(workers[i], "hda-worker-" + i);
+            threads[i].start();
+        }
+        joinAll(threads);
+
+        threadExpansions = new int[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            if (workers[i].failure != null) {
+                throw new IllegalStateException("Search worker failed", workers[i].failure);
+            }
+            threadExpansions[i] = workers[i].expansions;
+            exploredStates += workers[i].generated;
+            metrics.countGenerated(workers[i].generated);
+            metrics.countExpanded(workers[i].expansions);
+            metrics.countDuplicates(workers[i].duplicates);
+            metrics.observeOpenSize(workers[i].peakOpenSize);
+        }
+    }
+
+    private void joinAll(Thread[] threads) {
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                finished = true;
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for search workers", e);
+            }
+        }
+    }
+
+    private int ownerOf(BoardState state) {
+        return Math.floorMod(PackedStateSet.spread(state.getPackedState()), threadCount);
+    }
+
+    private void send(BoardState state) {
+        outstandingWork.incrementAndGet();
+        workers[ownerOf(state)].inbox.add(state);
+    }
+
+    private synchronized void offerSolution(BoardState goal) {
+        if (goal.getPathCost() < incumbentCost) {
+            incumbent = goal;
+            incumbentCost = goal.getPathCost();
+        }
+    }
+
+    private class Worker implements Runnable {
+        private final int id;
+        private final ConcurrentLinkedQueue<BoardState> inbox = new ConcurrentLinkedQueue<>();
+        private final IndexedHeap open;
+        private int[] bestCost;
+        private boolean busy = true;
+        private int sequence;
+        private int expansions;
+        private int generated;
+        private int duplicates;
+        private int peakOpenSize;
+        private Throwable failure;
+
+        Worker(int id) {
+            this.id = id;
+            StateIndex index = getStateIndex();
+            this.open = new IndexedHeap(index);
+            this.bestCost = new int[index.size()];
+            Arrays.fill(bestCost, INFINITY);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!finished) {
+                    receiveMessages();
+
+                    if (!open.isEmpty() && open.peekPriority() < incumbentCost) {
+                        expandBest();
+                        continue;
+                    }
+
+                    if (busy) {
+                        busy = false;
+                        outstandingWork.decrementAndGet();
+                    }
+                    if (outstandingWork.get() == 0) {
+                        finished = true;
+                    } else {
+                        Thread.yield();
+                    }
+                }
+            } catch (Throwable t) {
+                failure = t;
+                finished = true;
+            }
+        }
+
+        private void receiveMessages() {
+            if (inbox.isEmpty()) {
+                return;
+            }
+            if (!busy) {
+                busy = true;
+                outstandingWork.incrementAndGet();
+            }
+
+            BoardState message;
+            while ((message = inbox.poll()) != null) {
+                consider(message);
+                outstandingWork.decrementAndGet();
+            }
+        }
+
+        private void consider(BoardState state) {
+            int rank = getStateIndex().rank(state);
+            if (rank >= bestCost.length) {
+                int previousLength = bestCost.length;
+                bestCost = Arrays.copyOf(bestCost, Math.max(rank + 1, previousLength << 1));
+                Arrays.fill(bestCost, previousLength, bestCost.length, INFINITY);
+            }
+            if (state.getPathCost() >= bestCost[rank]) {
+                duplicates++;
+                return;
+            }
+            bestCost[rank] = state.getPathCost();
+
+            int cost = state.getPathCost() + heuristic.estimate(state.getPackedState());
+            state.setSequence(++sequence);
+            if (open.get(state) == null) {
+                open.add(state, cost);
+                peakOpenSize = Math.max(peakOpenSize, open.size());
+            } else {
+                open.decreaseKey(state, cost);
+            }
+        }
+
+        private void expandBest() {
+            BoardState current = open.poll();
+            expansions++;
+
+            if (displayOpenList) {
+                displayOpenNodes();
+            }
+
+            for (BoardState successor : current) {
+                generated++;
+                successor.setPreviousState(current);
+
+                if (successor.equals(targetState)) {
+                    offerSolution(successor);
+                    continue;
+                }
+
+                int estimate = heuristic.estimate(successor.getPackedState());
+                if (estimate == Heuristic.DEAD_END || successor.getPathCost() + estimate >= incumbentCost) {
+                    continue;
+                }
+
+                if (ownerOf(successor) == id) {
+                    consider(successor);
+                } else {
+                    send(successor);
+                }
+            }
+        }
+
+        private void displayOpenNodes() {
+            if (traceOpenList(id, open)) {
+                return;
+            }
+            synchronized (System.out) {
+                System.out.println("\nWorker " + id + " Open List:");
+                System.out.println("------------------------");
+                for (BoardState state : open) {
+                    state.displayBoard();
+                    System.out.println();
+                }
+                System.out.println("------------------------");
+            }
+        }
+    }
+
+    private void reconstructPath(BoardState endState) {
+        metrics.enterPhase(SearchMetrics.Phase.RECONSTRUCTION);
+        Deque<Move> pathStack = new ArrayDeque<>();
+        for (BoardState current = endState; current.getPreviousState() != null; current = current.getPreviousState()) {
+            pathStack.push(current.getLastMove());
+        }
+
+        while (!pathStack.isEmpty()) {
+            solutionPath.append(pathStack.pop().toString());
+            solutionPath.append(pathStack.isEmpty() ? "\n" : "--");
+        }
+    }
+}
@@ -0,0 +1,235 @@
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ParallelIDAstarSolver extends GameSolver {
+    private static final int INFINITY = Integer.MAX_VALUE;
+    private static final int DEFAULT_SPLIT_DEPTH = 4;
+
+    private final Heuristic heuristic;
+    private final int splitDepth;
+    private final int parallelism;
+    private final AtomicReference<BoardState> solution = new AtomicReference<>();
+    private final AtomicInteger nextThreshold = new AtomicInteger(INFINITY);
+    private final LongAdder generatedStates = new LongAdder();
+    private final LongAdder expandedStates = new LongAdder();
+    private final LongAdder duplicateStates = new LongAdder();
+    private int currentThreshold;
+
+    public ParallelIDAstarSolver(BoardState initial, BoardState target, boolean showOpenList) {
+        this(initial, target, showOpenList, target.getGeometry().isStandard()
+                        ? new PatternDatabaseHeuristic(target) : Heuristic.misplacedGems(target),
+                DEFAULT_SPLIT_DEPTH, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelIDAstarSolver(BoardState initial, BoardState target, boolean showOpenList,
+                                 Heuristic heuristic, int splitDepth, int parallelism) {
+        super(initial, target, showOpenList);
+        if (splitDepth < 0 || parallelism < 1) {
+            throw new IllegalArgumentException("Invalid split depth or parallelism");
+        }
+        this.heuristic = heuristic;
+        this.splitDepth = splitDepth;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    protected void search() {
+        if (!validatePuzzle()) {
+            solutionPath.append("no path\n");
+            return;
+        }
+
+        if (initialState.equals(targetState)) {
+            solutionPath.append("\n");
+            return;
+        }
+
+        currentThreshold = heuristic.estimate(initialState.getPackedState());
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            while (currentThreshold != INFINITY && solution.get() == null) {
+                nextThreshold.set(INFINITY);
+                long generatedBefore = generatedStates.sum();
+                long expandedBefore = expandedStates.sum();
+                long duplicatesBefore = duplicateStates.sum();
+                metrics.beginIteration(currentThreshold);
+                pool.invoke(new SubtreeTask(initialState, new int[]{initialState.getPackedState()}, 0));
+                metrics.countGenerated(generatedStates.sum() - generatedBefore);
+                metrics.countExpanded(expandedStates.sum() - expandedBefore);
+                metrics.countDuplicates(duplicateStates.sum() - duplicatesBefore);
+                metrics.endIteration();
+                currentThreshold = nextThreshold.get();
+            }
+        } finally {
+            pool.shutdown();
+            exploredStates = generatedStates.intValue();
+        }
+
+        BoardState goal = solution.get();
+        if (goal == null) {
+            solutionPath.append("no path\n");
+        } else {
+            totalCost = goal.getPathCost();
+            constructSolutionPath(goal);
+        }
+    }
+
+    private void offerNextThreshold(int cost) {
+        nextThreshold.accumulateAndGet(cost, Math::min);
+    }
+
+    private boolean isCancelled() {
+        return solution.get() != null;
+    }
+
+    @SuppressWarnings("serial")
+    private class SubtreeTask extends RecursiveAction {
+        private final BoardState root;
+        private final int[] path;
+        private final int depth;
+
+        SubtreeTask(BoardState root, int[] path, int depth) {
+            this.root = root;
+            this.path = path;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            if (isCancelled()) {
+                return;
+            }
+
+            if (depth >= splitDepth) {
+                PackedStateSet onPath = new PackedStateSet(path.length * 2);
+                for (int packed : path) {
+                    onPath.add(packed);
+                }
+                searchSequentially(root, onPath);
+                return;
+            }
+
+            expandedStates.increment();
+            List<SubtreeTask> subtasks = new ArrayList<>();
+            for (BoardState successor : root) {
+                if (!admit(root, successor, path)) {
+                    continue;
+                }
+                if (successor.equals(targetState)) {
+                    solution.compareAndSet(null, successor);
+                    return;
+                }
+
+                int[] childPath = Arrays.copyOf(path, path.length + 1);
+                childPath[path.length] = successor.getPackedState();
+                subtasks.add(new SubtreeTask(successor, childPath, depth + 1));
+            }
+
+            if (displayOpenList) {
+                displaySubtreeRoots(subtasks);
+            }
+            invokeAll(subtasks);
+        }
+
+        private boolean searchSequentially(BoardState current, PackedStateSet onPath) {
+            expandedStates.increment();
+            for (BoardState successor : current) {
+                if (isCancelled()) {
+                    return true;
+                }
+                if (!admit(current, successor, onPath)) {
+                    continue;
+                }
+                if (successor.equals(targetState)) {
+                    solution.compareAndSet(null, successor);
+                    return true;
+                }
+
+                onPath.add(successor);
+                boolean done = searchSequentially(successor, onPath);
+                onPath.remove(successor);
+                if (done) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean admit(BoardState parent, BoardState successor, int[] prefix) {
+            int packed = successor.getPackedState();
+            for (int onPath : prefix) {
+                if (onPath == packed) {
+                    generatedStates.increment();
+                    duplicateStates.increment();
+                    return false;
+                }
+            }
+            return withinThreshold(parent, successor);
+        }
+
+        private boolean admit(BoardState parent, BoardState successor, PackedStateSet onPath) {
+            if (onPath.contains(successor)) {
+                generatedStates.increment();
+                duplicateStates.increment();
+                return false;
+            }
+            return withinThreshold(parent, successor);
+        }
+
+        private boolean withinThreshold(BoardState parent, BoardState successor) {
+            generatedStates.increment();
+            int estimate = heuristic.estimate(successor.getPackedState());
+            if (estimate == Heuristic.DEAD_END) {
+                return false;
+            }
+
+            int cost = successor.getPathCost() + estimate;
+            if (cost > currentThreshold) {
+                offerNextThreshold(cost);
+                return false;
+            }
+
+            successor.setPreviousState(parent);
+            return true;
+        }
+
+        private void displaySubtreeRoots(List<SubtreeTask> subtasks) {
+            if (isTracing()) {
+                SearchTrace.Sample sample = sampleOpenList();
+                if (sample != null) {
+                    for (SubtreeTask task : subtasks) {
+                        sample.add(task.root.getPackedState());
+                    }
+                    sample.submit(0);
+                }
+                return;
+            }
+            synchronized (System.out) {
+                System.out.println("Open List Status:");
+                System.out.println("----------------------------------------");
+                for (SubtreeTask task : subtasks) {
+                    task.root.displayBoard();
+                    System.out.println();
+                }
+                System.out.println("----------------------------------------");
+            }
+        }
+    }
+
+    private void constructSolutionPath(BoardState goalState) {
+        metrics.enterPhase(SearchMetrics.Phase.RECONSTRUCTION);
+        Deque<Move> moves = new ArrayDeque<>();
+        for (BoardState state = goalState; state.getPreviousState() != null; state = state.getPreviousState()) {
+            moves.push(state.getLastMove());
+        }
+
+        while (!moves.isEmpty()) {
+            solutionPath.append(moves.pop().toString());
+            solutionPath.append(moves.isEmpty() ? "\n" : "--");
+        }
+    }
+}
@@ -0,0 +1,107 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class PatternDatabase {
+    private static final int EMPTY = 0;
+    private static final int WALL = 1;
+    private static final int PATTERN = 1;
+    private static final int OTHER = 2;
+    private static final int CELLS = 9;
+    private static final int STATES = 19683; // 3^9 abstract boards
+    private static final int UNREACHABLE = 0xFF;
+    private static final int CACHED_GOALS = 64;
+    private static final int[] POWERS = {1, 3, 9, 27, 81, 243, 729, 2187, 6561};
+
+    private static final Map<Long, PatternDatabase> cache =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, PatternDatabase> eldest) {
+                    return size() > CACHED_GOALS * 3;
+                }
+            };
+
+    private final int gemType;
+    private final int moveCost;
+    private final byte[] distances = new byte[STATES];
+
+    private PatternDatabase(int targetPacked, int gemType) {
+        this.gemType = gemType;
+        this.moveCost = BoardState.getGemValue(gemType);
+        build(targetPacked);
+    }
+
+    public static PatternDatabase forGoal(BoardState target, int gemType) {
+        BoardGeometry.requireStandard(target, "A pattern database");
+        int targetPacked = target.getPackedState();
+        long key = ((long) targetPacked << 3) | gemType;
+        synchronized (cache) {
+            return cache.computeIfAbsent(key, k -> new PatternDatabase(targetPacked, gemType));
+        }
+    }
+
+    public int lookup(int packedState) {
+        int steps = distances[abstractIndex(packedState)] & 0xFF;
+        return steps == UNREACHABLE ? Heuristic.DEAD_END : steps * moveCost;
+    }
+
+    private int abstractIndex(int packedState) {
+        int index = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            int value = BoardState.cellOf(packedState, cell);
+            if (value == gemType) {
+                index += PATTERN * POWERS[cell];
+            } else if (value > WALL) {
+                index += OTHER * POWERS[cell];
+            }
+        }
+        return index;
+    }
+
+    // 0-1 BFS backwards from the goal: moving a pattern gem costs one step,
+    // moving any other gem is free, so each colour's costs can be summed.
+    private void build(int targetPacked) {
+        boolean[] walls = new boolean[CELLS];
+        for (int cell = 0; cell < CELLS; cell++) {
+            walls[cell] = BoardState.cellOf(targetPacked, cell) == WALL;
+        }
+
+        Arrays.fill(distances, (byte) UNREACHABLE);
+        ArrayDeque<Integer> frontier = new ArrayDeque<>();
+        int goal = abstractIndex(targetPacked);
+        distances[goal] = 0;
+        frontier.add(goal);
+
+        while (!frontier.isEmpty()) {
+            int current = frontier.pollFirst();
+            int steps = distances[current] & 0xFF;
+
+            for (int cell = 0; cell < CELLS; cell++) {
+                int digit = (current / POWERS[cell]) % 3;
+                if (digit == EMPTY) {
+                    continue;
+                }
+                for (int direction = 0; direction < 4; direction++) {
+                    int neighbour = BoardState.neighbourOf(cell, direction);
+                    if (walls[neighbour] || (current / POWERS[neighbour]) % 3 != EMPTY) {
+                        continue;
+                    }
+
+                    int next = current - digit * POWERS[cell] + digit * POWERS[neighbour];
+                    int nextSteps = steps + (digit == PATTERN ? 1 : 0);
+                    if ((distances[next] & 0xFF) <= nextSteps) {
+                        continue;
+                    }
+
+                    distances[next] = (byte) nextSteps;
+                    if (digit == PATTERN) {
+                        frontier.addLast(next);
+                    } else {
+                        frontier.addFirst(next);
+                    }
+                }
+            }
+        }
+    }
+}
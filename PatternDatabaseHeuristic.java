@@ -0,0 +1,38 @@
+import java.util.Arrays;
+
+public class PatternDatabaseHeuristic implements Heuristic {
+    private static final int[] GEM_TYPES = {2, 3, 4};
+
+    private final PatternDatabase[] databases;
+
+    public PatternDatabaseHeuristic(BoardState target) {
+        BoardGeometry.requireStandard(target, "The pattern database heuristic");
+        int targetPacked = target.getPackedState();
+        databases = Arrays.stream(GEM_TYPES)
+                .filter(gem -> containsGem(targetPacked, gem))
+                .mapToObj(gem -> PatternDatabase.forGoal(target, gem))
+                .toArray(PatternDatabase[]::new);
+    }
+
+    private static boolean containsGem(int packedState, int gemType) {
+        for (int cell = 0; cell < 9; cell++) {
+            if (BoardState.cellOf(packedState, cell) == gemType) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int estimate(int packedState) {
+        int total = 0;
+        for (PatternDatabase database : databases) {
+            int cost = database.lookup(packedState);
+            if (cost == DEAD_END) {
+                return DEAD_END;
+            }
+            total += cost;
+        }
+        return total;
+    }
+}
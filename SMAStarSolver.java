@@ -0,0 +1,393 @@
+import java.util.*;
+
+// Simplified memory-bounded A* (SMA*). The search tree never holds more
+// than the node budget: when it is full, the shallowest leaf with the
+// highest f is dropped and its state and f-value are remembered by its
+// parent. A parent with dropped children stays a candidate for expansion
+// under the cheapest of those f-values and regenerates that child when
+// chosen. The first goal chosen is optimal whenever the optimal path fits
+// in the budget. On boards other than 3x3, states no node refers to are
+// released from the geometry's state table, so it stays within a small
+// multiple of the budget as well.
+//
+// A budget much smaller than the part of the tree A* would keep makes
+// SMA* drop and regenerate the same nodes over and over, and its running
+// time can grow by orders of magnitude. Regenerated children are counted
+// as reopenings rather than as newly generated nodes.
+public class SMAStarSolver extends GameSolver {
+    private static final int INFINITY = Integer.MAX_VALUE;
+    private static final String BUDGET_PROPERTY = "sma.nodeBudget";
+    private static final int DEFAULT_NODE_BUDGET = 1 << 16;
+
+    private final Heuristic heuristic;
+    private final int nodeBudget;
+    private final SuccessorBuffer successors = new SuccessorBuffer();
+    private TreeSet<Node> leaves;
+    private TreeSet<Node> pending;
+    private HashMap<Integer, Resident> residents;
+    private boolean releasing;
+    private int[] unreferenced = new int[16];
+    private int unreferencedCount;
+    private Node expanding;
+    private int nodeCount;
+    private int nextId;
+    private long forgottenNodes;
+
+    public SMAStarSolver(BoardState initial, BoardState target, boolean showOpenList) {
+        this(initial, target, showOpenList, Heuristic.misplacedGems(target),
+                Integer.getInteger(BUDGET_PROPERTY, DEFAULT_NODE_BUDGET));
+    }
+
+    public SMAStarSolver(BoardState initial, BoardState target, boolean showOpenList,
+                         Heuristic heuristic, int nodeBudget) {
+        super(initial, target, showOpenList);
+        if (nodeBudget < 2) {
+            throw new IllegalArgumentException("Node budget must be at least 2");
+        }
+        this.heuristic = heuristic;
+        this.nodeBudget = nodeBudget;
+    }
+
+    private static final class Node {
+        final BoardState state;
+        final Node parent;
+        final int depth;
+        final int id;
+        final int cost;
+        boolean expanded;
+        int liveChildren;
+        // Dropped children, by the move that reaches them, with the f-value
+        // they had. Moves stay valid after the child's state is released.
+        int[] forgottenMoves;
+        int[] forgottenCosts;
+        int forgottenCount;
+        // Position in the leaves or pending set, fixed while it is in one.
+        int key;
+        TreeSet<Node> queue;
+
+        Node(BoardState state, Node parent, int cost, int id) {
+            this.state = state;
+            this.parent = parent;
+            this.depth = parent == null ? 0 : parent.depth + 1;
+            this.cost = cost;
+            this.id = id;
+        }
+
+        void forget(int packedMove, int childCost) {
+            if (forgottenMoves == null) {
+                forgottenMoves = new int[4];
+                forgottenCosts = new int[4];
+            } else if (forgottenCount == forgottenMoves.length) {
+                forgottenMoves = Arrays.copyOf(forgottenMoves, forgottenCount << 1);
+                forgottenCosts = Arrays.copyOf(forgottenCosts, forgottenCount << 1);
+            }
+            forgottenMoves[forgottenCount] = packedMove;
+            forgottenCosts[forgottenCount] = childCost;
+            forgottenCount++;
+        }
+
+        int cheapestForgotten() {
+            int cheapest = -1;
+            for (int i = 0; i < forgottenCount; i++) {
+                if (cheapest < 0 || forgottenCosts[i] < forgottenCosts[cheapest]) {
+                    cheapest = i;
+                }
+            }
+            return cheapest;
+        }
+
+        void removeForgotten(int i) {
+            forgottenCount--;
+            forgottenMoves[i] = forgottenMoves[forgottenCount];
+            forgottenCosts[i] = forgottenCosts[forgottenCount];
+        }
+    }
+
+    // The nodes in memory that hold one state: the cheapest of them, for
+    // duplicate detection, and how many there are.
+    private static final class Resident {
+        Node cheapest;
+        int count;
+    }
+
+    // Lowest f first, deeper and newer nodes first among equal f, so the
+    // last leaf is the shallowest, oldest one with the highest f.
+    private static final Comparator<Node> BY_KEY = Comparator
+            .comparingInt((Node node) -> node.key)
+            .thenComparingInt(node -> -node.depth)
+            .thenComparingInt(node -> -node.id);
+
+    public long getForgottenNodes() {
+        return forgottenNodes;
+    }
+
+    @Override
+    protected void search() {
+        if (!validatePuzzle()) {
+            solutionPath.append("no path\n");
+            return;
+        }
+
+        if (initialState.equals(targetState)) {
+            solutionPath.append("start is the goal\n");
+            totalCost = 0;
+            return;
+        }
+
+        Node goal = performSearch();
+        if (goal == null) {
+            solutionPath.append("no path\n");
+            return;
+        }
+
+        totalCost = goal.state.getPathCost();
+        reconstructPath(goal);
+    }
+
+    private Node performSearch() {
+        leaves = new TreeSet<>(BY_KEY);
+        pending = new TreeSet<>(BY_KEY);
+        residents = new HashMap<>();
+        // A queued trace snapshot may still refer to a released state.
+        releasing = !initialState.getGeometry().isStandard() && !isTracing();
+        unreferencedCount = 0;
+        nodeCount = 0;
+        nextId = 0;
+        forgottenNodes = 0;
+        exploredStates = 0;
+
+        int initialEstimate = heuristic.estimate(initialState.getPackedState());
+        if (initialEstimate == Heuristic.DEAD_END) {
+            return null;
+        }
+        Node root = new Node(initialState, null, initialEstimate, nextId++);
+        remember(root);
+        attach(root);
+
+        while (true) {
+            if (displayOpenList) {
+                displayLeaves();
+            }
+
+            Node best = pollBest();
+            if (best == null) {
+                return null;
+            }
+            if (!best.expanded && best.state.equals(targetState)) {
+                return best;
+            }
+
+            expanding = best;
+            if (best.expanded) {
+                regenerate(best);
+            } else {
+                expand(best);
+            }
+            expanding = null;
+            attach(best);
+            releaseUnreferenced();
+
+            metrics.observeOpenSize(leaves.size() + pending.size());
+            metrics.observeClosedSize(nodeCount);
+        }
+    }
+
+    // Either the cheapest leaf or the parent whose cheapest dropped child
+    // beats it; null once every remaining path is known to be a dead end.
+    private Node pollBest() {
+        Node leaf = leaves.isEmpty() ? null : leaves.first();
+        Node parent = pending.isEmpty() ? null : pending.first();
+        Node best = parent != null && (leaf == null || parent.key < leaf.key) ? parent : leaf;
+        if (best == null || best.key == INFINITY) {
+            return null;
+        }
+        detach(best);
+        return best;
+    }
+
+    private void expand(Node node) {
+        metrics.countExpanded();
+        node.expanded = true;
+
+        node.state.expandInto(successors);
+        for (int i = 0; i < successors.size(); i++) {
+            exploredStates++;
+            metrics.countGenerated();
+            addChild(node, i, node.cost);
+        }
+    }
+
+    // Brings back the cheapest dropped child with the f-value it had.
+    private void regenerate(Node node) {
+        metrics.countReopening();
+        int forgotten = node.cheapestForgotten();
+        int move = node.forgottenMoves[forgotten];
+        int childCost = node.forgottenCosts[forgotten];
+        node.removeForgotten(forgotten);
+
+        node.state.expandInto(successors);
+        for (int i = 0; i < successors.size(); i++) {
+            if (successors.moveAt(i) == move) {
+                addChild(node, i, childCost);
+                return;
+            }
+        }
+    }
+
+    private void addChild(Node node, int successor, int floor) {
+        int packed = successors.stateAt(successor);
+        int estimate = heuristic.estimate(packed);
+        if (estimate == Heuristic.DEAD_END) {
+            return;
+        }
+
+        int pathCost = node.state.getPathCost() + successors.costAt(successor);
+        Resident resident = residents.get(packed);
+        Node known = resident == null ? null : resident.cheapest;
+        if (known != null && known.state.getPathCost() <= pathCost) {
+            metrics.countDuplicate();
+            return;
+        }
+
+        // A path that already fills the budget cannot be extended past this
+        // child, so only a goal is worth keeping there.
+        if (node.depth + 2 >= nodeBudget && packed != targetState.getPackedState()) {
+            return;
+        }
+
+        // Path-max keeps f non-decreasing along every branch.
+        int cost = Math.max(floor, pathCost + estimate);
+        Node child = new Node(node.state.successor(successors, successor), node, cost, nextId++);
+        child.state.setPreviousState(node.state);
+        node.liveChildren++;
+        remember(child);
+        attach(child);
+        if (nodeCount > nodeBudget) {
+            forgetWorstLeaf();
+        }
+    }
+
+    private void forgetWorstLeaf() {
+        Node worst = leaves.last();
+        detach(worst);
+        forgottenNodes++;
+        nodeCount--;
+        int packed = worst.state.getPackedState();
+        Resident resident = residents.get(packed);
+        if (resident.cheapest == worst) {
+            resident.cheapest = null;
+        }
+        if (--resident.count == 0) {
+            residents.remove(packed);
+            markUnreferenced(packed);
+        }
+
+        Node parent = worst.parent;
+        boolean queued = parent != expanding;
+        if (queued) {
+            detach(parent);
+        }
+        parent.liveChildren--;
+        if (worst.key != INFINITY) {
+            parent.forget(worst.state.getLastPackedMove(), worst.key);
+        }
+        if (queued) {
+            attach(parent);
+        }
+    }
+
+    // Leaves are nodes without children in memory and are ranked by their
+    // own f, or by the cheapest dropped child once they have been expanded.
+    // Interior nodes only queue up while they have dropped children.
+    private void attach(Node node) {
+        int forgotten = node.cheapestForgotten();
+        int cheapestForgotten = forgotten < 0 ? INFINITY : node.forgottenCosts[forgotten];
+        if (node.liveChildren == 0) {
+            node.key = node.expanded ? Math.max(node.cost, cheapestForgotten) : node.cost;
+            node.queue = leaves;
+        } else if (forgotten >= 0) {
+            node.key = cheapestForgotten;
+            node.queue = pending;
+        } else {
+            return;
+        }
+        node.queue.add(node);
+    }
+
+    private void detach(Node node) {
+        if (node.queue != null) {
+            node.queue.remove(node);
+            node.queue = null;
+        }
+    }
+
+    private void remember(Node node) {
+        nodeCount++;
+        Resident resident = residents.computeIfAbsent(node.state.getPackedState(), packed -> new Resident());
+        resident.count++;
+        if (resident.cheapest == null || node.state.getPathCost() < resident.cheapest.state.getPathCost()) {
+            resident.cheapest = node;
+        }
+    }
+
+    // Released only once the expansion is over, since a state dropped with
+    // its last node may still be waiting in the successor buffer.
+    private void markUnreferenced(int packed) {
+        if (!releasing) {
+            return;
+        }
+        if (unreferencedCount == unreferenced.length) {
+            unreferenced = Arrays.copyOf(unreferenced, unreferencedCount << 1);
+        }
+        unreferenced[unreferencedCount++] = packed;
+    }
+
+    private void releaseUnreferenced() {
+        if (!releasing) {
+            return;
+        }
+        for (int i = 0; i < successors.size(); i++) {
+            release(successors.stateAt(i));
+        }
+        for (int i = 0; i < unreferencedCount; i++) {
+            release(unreferenced[i]);
+        }
+        unreferencedCount = 0;
+    }
+
+    private void release(int packed) {
+        if (packed != initialState.getPackedState() && packed != targetState.getPackedState()
+                && !residents.containsKey(packed)) {
+            initialState.getGeometry().release(packed);
+        }
+    }
+
+    private void reconstructPath(Node goal) {
+        metrics.enterPhase(SearchMetrics.Phase.RECONSTRUCTION);
+        Deque<String> moves = new ArrayDeque<>();
+        for (Node node = goal; node.parent != null; node = node.parent) {
+            moves.push(node.state.getLastMove().toString());
+        }
+        solutionPath.append(String.join("--", moves)).append("\n");
+    }
+
+    private void displayLeaves() {
+        if (isTracing()) {
+            SearchTrace.Sample sample = sampleOpenList();
+            if (sample != null) {
+                for (Node leaf : leaves) {
+                    sample.add(leaf.state.getPackedState());
+                }
+                sample.submit(0);
+            }
+            return;
+        }
+        System.out.println("Open List Status:");
+        System.out.println("----------------------------------------");
+        for (Node leaf : leaves) {
+            leaf.state.displayBoard();
+            System.out.println();
+        }
+        System.out.println("----------------------------------------");
+    }
+}
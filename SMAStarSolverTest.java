@@ -0,0 +1,67 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class SMAStarSolverTest {
+    @Test
+    void staysWithinItsNodeBudgetAndStaysOptimal() {
+        int optimal = optimalCost(new BoardState("R_BG__B__"), new BoardState("___RB__BG"));
+        for (int budget : new int[]{8, 20, 100}) {
+            BoardState start = new BoardState("R_BG__B__");
+            BoardState goal = new BoardState("___RB__BG");
+            SMAStarSolver solver = new SMAStarSolver(start, goal, false, Heuristic.misplacedGems(goal), budget);
+            solver.execute();
+
+            assertEquals(optimal, solver.getTotalCost(), "budget " + budget);
+            assertTrue(solver.getMetrics().getPeakClosedSize() <= budget, "budget " + budget);
+        }
+    }
+
+    @Test
+    void forgetsNodesOnlyWhenTheBudgetIsFull() {
+        BoardState start = new BoardState("R_BG__B__");
+        BoardState goal = new BoardState("___RB__BG");
+        SMAStarSolver tight = new SMAStarSolver(start, goal, false, Heuristic.misplacedGems(goal), 8);
+        tight.execute();
+        assertTrue(tight.getForgottenNodes() > 0);
+
+        SMAStarSolver roomy = new SMAStarSolver(start, goal, false, Heuristic.misplacedGems(goal), 100_000);
+        roomy.execute();
+        assertEquals(0, roomy.getForgottenNodes());
+    }
+
+    // On interned boards the geometry's state table must not outgrow the
+    // budget either, since forgotten states are released from it.
+    @Test
+    void keepsInternedStatesBoundedOnLargerBoards() {
+        BoardState[] reference = BoardState.parsePuzzle("RG_B/_X__/B_G_", "_GRB/_X__/__GB");
+        int optimal = optimalCost(reference[0], reference[1]);
+
+        int budget = 60;
+        BoardState[] puzzle = BoardState.parsePuzzle("RG_B/_X__/B_G_", "_GRB/_X__/__GB");
+        SMAStarSolver solver = new SMAStarSolver(puzzle[0], puzzle[1], false,
+                Heuristic.misplacedGems(puzzle[1]), budget);
+        solver.execute();
+
+        assertEquals(optimal, solver.getTotalCost());
+        assertTrue(solver.getForgottenNodes() > 0);
+        assertTrue(solver.getMetrics().getPeakClosedSize() <= budget);
+        assertTrue(puzzle[0].getGeometry().internedStates() <= 2 * budget,
+                "interned " + puzzle[0].getGeometry().internedStates());
+    }
+
+    @Test
+    void rejectsABudgetBelowTwoNodes() {
+        BoardState board = new BoardState("R_BG__B__");
+        assertThrows(IllegalArgumentException.class,
+                () -> new SMAStarSolver(board, board, false, Heuristic.misplacedGems(board), 1));
+    }
+
+    private static int optimalCost(BoardState start, BoardState goal) {
+        GameSolver solver = new AStarSolver(start, goal, false);
+        solver.execute();
+        return solver.getTotalCost();
+    }
+}
@@ -0,0 +1,53 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("search.Search")
+@Label("Search")
+@Category("Search")
+@Description("One GameSolver.execute call with its search metrics")
+public class SearchEvent extends jdk.jfr.Event {
+    @Label("Solver")
+    String solver;
+
+    @Label("Solved")
+    boolean solved;
+
+    @Label("Total Cost")
+    int totalCost;
+
+    @Label("Nodes Generated")
+    long generated;
+
+    @Label("Nodes Expanded")
+    long expanded;
+
+    @Label("Duplicates")
+    long duplicates;
+
+    @Label("Reopenings")
+    long reopenings;
+
+    @Label("Peak Open List Size")
+    int peakOpenSize;
+
+    @Label("Peak Closed Set Size")
+    int peakClosedSize;
+
+    @Label("Threshold Iterations")
+    int iterations;
+
+    @Label("Validation Time")
+    @Timespan
+    long validationTime;
+
+    @Label("Search Time")
+    @Timespan
+    long searchTime;
+
+    @Label("Reconstruction Time")
+    @Timespan
+    long reconstructionTime;
+}
@@ -0,0 +1,22 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("search.Iteration")
+@Label("Search Iteration")
+@Category("Search")
+@Description("One cost-threshold or depth-limit iteration of an iterative-deepening solver")
+public class SearchIterationEvent extends jdk.jfr.Event {
+    @Label("Solver")
+    String solver;
+
+    @Label("Iteration")
+    int iteration;
+
+    @Label("Threshold")
+    int threshold;
+
+    @Label("Nodes Generated")
+    long generated;
+}
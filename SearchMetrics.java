@@ -0,0 +1,197 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class SearchMetrics {
+    public enum Phase {
+        VALIDATION,
+        SEARCH,
+        RECONSTRUCTION
+    }
+
+    private final String solver;
+    private long generated;
+    private long expanded;
+    private long duplicates;
+    private long reopenings;
+    private int peakOpenSize;
+    private int peakClosedSize;
+    private final List<Integer> iterationThresholds = new ArrayList<>();
+    private final List<Long> iterationNodes = new ArrayList<>();
+    private final long[] phaseNanos = new long[Phase.values().length];
+
+    private Phase phase;
+    private long phaseStart;
+    private long generatedAtIterationStart;
+    private SearchIterationEvent iterationEvent;
+
+    public SearchMetrics(String solver) {
+        this.solver = solver;
+    }
+
+    void reset() {
+        generated = 0;
+        expanded = 0;
+        duplicates = 0;
+        reopenings = 0;
+        peakOpenSize = 0;
+        peakClosedSize = 0;
+        iterationThresholds.clear();
+        iterationNodes.clear();
+        Arrays.fill(phaseNanos, 0);
+        phase = null;
+        iterationEvent = null;
+    }
+
+    public void countGenerated() {
+        generated++;
+    }
+
+    public void countGenerated(long count) {
+        generated += count;
+    }
+
+    public void countExpanded() {
+        expanded++;
+    }
+
+    public void countExpanded(long count) {
+        expanded += count;
+    }
+
+    public void countDuplicate() {
+        duplicates++;
+    }
+
+    public void countDuplicates(long count) {
+        duplicates += count;
+    }
+
+    public void countReopening() {
+        reopenings++;
+    }
+
+    public void observeOpenSize(int size) {
+        peakOpenSize = Math.max(peakOpenSize, size);
+    }
+
+    public void observeClosedSize(int size) {
+        peakClosedSize = Math.max(peakClosedSize, size);
+    }
+
+    public void beginIteration(int threshold) {
+        iterationThresholds.add(threshold);
+        generatedAtIterationStart = generated;
+        iterationEvent = new SearchIterationEvent();
+        iterationEvent.begin();
+    }
+
+    public void endIteration() {
+        long nodes = generated - generatedAtIterationStart;
+        iterationNodes.add(nodes);
+
+        if (iterationEvent.shouldCommit()) {
+            iterationEvent.solver = solver;
+            iterationEvent.iteration = iterationNodes.size();
+            iterationEvent.threshold = iterationThresholds.get(iterationThresholds.size() - 1);
+            iterationEvent.generated = nodes;
+            iterationEvent.commit();
+        }
+        iterationEvent = null;
+    }
+
+    public void enterPhase(Phase next) {
+        long now = System.nanoTime();
+        if (phase != null) {
+            phaseNanos[phase.ordinal()] += now - phaseStart;
+        }
+        phase = next;
+        phaseStart = now;
+    }
+
+    void finishPhases() {
+        if (phase != null) {
+            phaseNanos[phase.ordinal()] += System.nanoTime() - phaseStart;
+            phase = null;
+        }
+        if (iterationEvent != null) {
+            endIteration();
+        }
+    }
+
+    // Adds the counters of a nested solver that did part of this search.
+    public void include(SearchMetrics other) {
+        generated += other.generated;
+        expanded += other.expanded;
+        duplicates += other.duplicates;
+        reopenings += other.reopenings;
+        peakOpenSize = Math.max(peakOpenSize, other.peakOpenSize);
+        peakClosedSize = Math.max(peakClosedSize, other.peakClosedSize);
+        iterationThresholds.addAll(other.iterationThresholds);
+        iterationNodes.addAll(other.iterationNodes);
+    }
+
+    void fill(SearchEvent event) {
+        event.solver = solver;
+        event.generated = generated;
+        event.expanded = expanded;
+        event.duplicates = duplicates;
+        event.reopenings = reopenings;
+        event.peakOpenSize = peakOpenSize;
+        event.peakClosedSize = peakClosedSize;
+        event.iterations = iterationNodes.size();
+        event.validationTime = getPhaseNanos(Phase.VALIDATION);
+        event.searchTime = getPhaseNanos(Phase.SEARCH);
+        event.reconstructionTime = getPhaseNanos(Phase.RECONSTRUCTION);
+    }
+
+    public String getSolver() {
+        return solver;
+    }
+
+    public long getGenerated() {
+        return generated;
+    }
+
+    public long getExpanded() {
+        return expanded;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public long getReopenings() {
+        return reopenings;
+    }
+
+    public int getPeakOpenSize() {
+        return peakOpenSize;
+    }
+
+    public int getPeakClosedSize() {
+        return peakClosedSize;
+    }
+
+    public List<Integer> getIterationThresholds() {
+        return Collections.unmodifiableList(iterationThresholds);
+    }
+
+    public List<Long> getIterationNodes() {
+        return Collections.unmodifiableList(iterationNodes);
+    }
+
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: generated=%d expanded=%d duplicates=%d reopenings=%d peakOpen=%d peakClosed=%d "
+                        + "iterations=%d validation=%.3fms search=%.3fms reconstruction=%.3fms",
+                solver, generated, expanded, duplicates, reopenings, peakOpenSize, peakClosedSize,
+                iterationNodes.size(), getPhaseNanos(Phase.VALIDATION) / 1e6, getPhaseNanos(Phase.SEARCH) / 1e6,
+                getPhaseNanos(Phase.RECONSTRUCTION) / 1e6);
+    }
+}
@@ -0,0 +1,283 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Binary open-list trace written by a background thread. Solvers copy a
+// sampled open list into a snapshot and hand it over through a bounded
+// ring buffer; when the writer falls behind, snapshots are dropped rather
+// than slowing the search down. TraceRenderer turns a trace into text.
+public class SearchTrace implements Closeable {
+    // File layout (big-endian): magic, version, rows, columns, solver name,
+    // then tagged records up to END. A state's cells are written once,
+    // two per byte, in a STATE record before the first snapshot using it.
+    // FULL lists an open list in order; DIFF lists the states added to and
+    // removed from the previous snapshot of the same open list.
+    static final int MAGIC = 0x47545243; // "GTRC"
+    static final int VERSION = 1;
+    static final int END = 0;
+    static final int STATE = 1;
+    static final int FULL = 2;
+    static final int DIFF = 3;
+
+    private static final String FILE_PROPERTY = "trace.file";
+    private static final String INTERVAL_PROPERTY = "trace.sampleInterval";
+    private static final String DIFF_PROPERTY = "trace.diff";
+    private static final String BUFFER_PROPERTY = "trace.bufferSnapshots";
+    private static final int DEFAULT_BUFFER_SNAPSHOTS = 64;
+    private static final int OUTPUT_BUFFER_BYTES = 1 << 16;
+
+    private record Snapshot(int list, long step, int[] states) {
+    }
+
+    private static final Snapshot CLOSED = new Snapshot(-1, -1, new int[0]);
+
+    private final Path file;
+    private final BoardGeometry geometry;
+    private final String solverName;
+    private final int sampleInterval;
+    private final boolean diffs;
+    private final ArrayBlockingQueue<Snapshot> ring;
+    private final AtomicLong steps = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private Thread writer;
+    private volatile IOException failure;
+
+    // Only touched by the writer thread.
+    private final BitSet described = new BitSet();
+    private final Map<Integer, int[]> previous = new HashMap<>();
+
+    public SearchTrace(Path file, BoardGeometry geometry, String solverName,
+                       int sampleInterval, boolean diffs, int bufferSnapshots) {
+        if (sampleInterval < 1 || bufferSnapshots < 1) {
+            throw new IllegalArgumentException("Sample interval and buffer size must be positive");
+        }
+        this.file = file;
+        this.geometry = geometry;
+        this.solverName = solverName;
+        this.sampleInterval = sampleInterval;
+        this.diffs = diffs;
+        this.ring = new ArrayBlockingQueue<>(bufferSnapshots);
+    }
+
+    // Null unless trace.file is set.
+    static SearchTrace fromProperties(BoardGeometry geometry, String solverName) {
+        String name = System.getProperty(FILE_PROPERTY);
+        if (name == null || name.isEmpty()) {
+            return null;
+        }
+        return new SearchTrace(Path.of(name), geometry, solverName,
+                Integer.getInteger(INTERVAL_PROPERTY, 1), Boolean.getBoolean(DIFF_PROPERTY),
+                Integer.getInteger(BUFFER_PROPERTY, DEFAULT_BUFFER_SNAPSHOTS));
+    }
+
+    // Counts one step of the search and returns a snapshot to fill when this
+    // step is sampled, or null otherwise.
+    public Sample sample() {
+        long step = steps.incrementAndGet();
+        return (step - 1) % sampleInterval == 0 ? new Sample(step) : null;
+    }
+
+    public long getDroppedSnapshots() {
+        return dropped.get();
+    }
+
+    public final class Sample {
+        private final long step;
+        private int[] states = new int[16];
+        private int count;
+
+        private Sample(long step) {
+            this.step = step;
+        }
+
+        public void add(int packedState) {
+            if (count == states.length) {
+                states = Arrays.copyOf(states, count << 1);
+            }
+            states[count++] = packedState;
+        }
+
+        // Hands the states added so far over as the given open list and
+        // starts an empty one, so a solver can submit several lists per step.
+        public void submit(int list) {
+            enqueue(new Snapshot(list, step, Arrays.copyOf(states, count)));
+            count = 0;
+        }
+    }
+
+    private void enqueue(Snapshot snapshot) {
+        startWriter();
+        if (!ring.offer(snapshot)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    // The file is only created once something is traced, so a solver that
+    // delegates to another one leaves the trace to its delegate.
+    private synchronized void startWriter() {
+        if (writer == null) {
+            writer = new Thread(this::drain, "search-trace");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    @Override
+    public void close() {
+        Thread started;
+        synchronized (this) {
+            started = writer;
+        }
+        if (started == null) {
+            return;
+        }
+
+        try {
+            ring.put(CLOSED);
+            started.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Could not write trace " + file, failure);
+        }
+    }
+
+    private void drain() {
+        DataOutputStream output = null;
+        try {
+            output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), OUTPUT_BUFFER_BYTES));
+            writeHeader(output);
+
+            // Keep taking snapshots after a failure so close() never blocks.
+            Snapshot snapshot;
+            while ((snapshot = ring.take()) != CLOSED) {
+                if (failure == null) {
+                    writeOrFail(output, snapshot);
+                }
+            }
+            if (failure == null) {
+                output.writeByte(END);
+                output.writeLong(steps.get());
+                output.writeLong(dropped.get());
+            }
+        } catch (IOException e) {
+            failure = e;
+            discardUntilClosed();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            close(output);
+        }
+    }
+
+    private void writeOrFail(DataOutputStream output, Snapshot snapshot) {
+        try {
+            write(output, snapshot);
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    private void discardUntilClosed() {
+        try {
+            while (ring.take() != CLOSED) {
+                dropped.incrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeHeader(DataOutputStream output) throws IOException {
+        output.writeInt(MAGIC);
+        output.writeByte(VERSION);
+        output.writeShort(geometry.getRows());
+        output.writeShort(geometry.getColumns());
+        output.writeUTF(solverName);
+    }
+
+    private void write(DataOutputStream output, Snapshot snapshot) throws IOException {
+        for (int state : snapshot.states()) {
+            describe(output, state);
+        }
+
+        int[] sorted = null;
+        int[] earlier = null;
+        if (diffs) {
+            sorted = snapshot.states().clone();
+            Arrays.sort(sorted);
+            earlier = previous.put(snapshot.list(), sorted);
+        }
+
+        if (earlier == null) {
+            output.writeByte(FULL);
+            output.writeInt(snapshot.list());
+            output.writeLong(snapshot.step());
+            writeStates(output, snapshot.states(), snapshot.states().length);
+            return;
+        }
+
+        int[] added = new int[sorted.length];
+        int[] removed = new int[earlier.length];
+        int addedCount = 0;
+        int removedCount = 0;
+        int i = 0;
+        int j = 0;
+        while (i < sorted.length || j < earlier.length) {
+            if (j == earlier.length || (i < sorted.length && sorted[i] < earlier[j])) {
+                added[addedCount++] = sorted[i++];
+            } else if (i == sorted.length || earlier[j] < sorted[i]) {
+                removed[removedCount++] = earlier[j++];
+            } else {
+                i++;
+                j++;
+            }
+        }
+
+        output.writeByte(DIFF);
+        output.writeInt(snapshot.list());
+        output.writeLong(snapshot.step());
+        writeStates(output, added, addedCount);
+        writeStates(output, removed, removedCount);
+    }
+
+    private void describe(DataOutputStream output, int state) throws IOException {
+        if (described.get(state)) {
+            return;
+        }
+        described.set(state);
+
+        int cells = geometry.getCellCount();
+        output.writeByte(STATE);
+        output.writeInt(state);
+        for (int cell = 0; cell < cells; cell += 2) {
+            int low = cell + 1 < cells ? geometry.cellOf(state, cell + 1) : 0;
+            output.writeByte(geometry.cellOf(state, cell) << 4 | low);
+        }
+    }
+
+    private static void writeStates(DataOutputStream output, int[] states, int count) throws IOException {
+        output.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            output.writeInt(states[i]);
+        }
+    }
+
+    private void close(DataOutputStream output) {
+        if (output == null) {
+            return;
+        }
+        try {
+            output.close();
+        } catch (IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+    }
+}
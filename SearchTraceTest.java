@@ -0,0 +1,116 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SearchTraceTest {
+    private static final int A = new BoardState("R_BG__B__").getPackedState();
+    private static final int B = new BoardState("___RB__BG").getPackedState();
+    private static final int C = new BoardState("GBX_XB_R_").getPackedState();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void samplesEveryNthStepAndWritesDiffsAgainstTheLastSnapshot() throws IOException {
+        Path file = directory.resolve("search.trace");
+        SearchTrace trace = new SearchTrace(file, BoardGeometry.STANDARD, "A*", 2, true, 16);
+
+        SearchTrace.Sample first = trace.sample();
+        assertNotNull(first);
+        first.add(A);
+        first.add(B);
+        first.submit(0);
+        assertNull(trace.sample());
+        SearchTrace.Sample third = trace.sample();
+        assertNotNull(third);
+        third.add(B);
+        third.add(C);
+        third.submit(0);
+        trace.close();
+        assertEquals(0, trace.getDroppedSnapshots());
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            assertEquals(SearchTrace.MAGIC, input.readInt());
+            assertEquals(SearchTrace.VERSION, input.readUnsignedByte());
+            assertEquals(3, input.readUnsignedShort());
+            assertEquals(3, input.readUnsignedShort());
+            assertEquals("A*", input.readUTF());
+
+            Set<Integer> described = new HashSet<>();
+            assertTrue(described.add(readState(input)));
+            assertTrue(described.add(readState(input)));
+            assertEquals(SearchTrace.FULL, input.readUnsignedByte());
+            assertEquals(0, input.readInt());
+            assertEquals(1, input.readLong());
+            assertArrayEquals(new int[]{A, B}, readStates(input));
+
+            // Only C is new; B was described for the first snapshot.
+            assertEquals(C, readState(input));
+            assertEquals(SearchTrace.DIFF, input.readUnsignedByte());
+            assertEquals(0, input.readInt());
+            assertEquals(3, input.readLong());
+            assertArrayEquals(new int[]{C}, readStates(input));
+            assertArrayEquals(new int[]{A}, readStates(input));
+
+            assertEquals(SearchTrace.END, input.readUnsignedByte());
+            assertEquals(3, input.readLong());
+            assertEquals(0, input.readLong());
+            assertEquals(-1, input.read());
+        }
+    }
+
+    @Test
+    void rendersATraceAsText() throws IOException {
+        Path file = directory.resolve("search.trace");
+        Path text = directory.resolve("search.txt");
+        SearchTrace trace = new SearchTrace(file, BoardGeometry.STANDARD, "BFS", 1, false, 16);
+        SearchTrace.Sample sample = trace.sample();
+        sample.add(A);
+        sample.submit(0);
+        trace.close();
+
+        TraceRenderer.main(new String[]{file.toString(), text.toString()});
+        String rendered = Files.readString(text);
+        assertTrue(rendered.startsWith("Trace of BFS on a 3x3 board"));
+        assertTrue(rendered.contains("Open list 0 at step 1: 1 states"));
+        assertTrue(rendered.contains("[R,_,B]"));
+        assertTrue(rendered.contains("End of trace: 1 steps, 0 snapshots dropped"));
+    }
+
+    @Test
+    void createsNoFileWhenNothingIsSampled() {
+        Path file = directory.resolve("unused.trace");
+        SearchTrace trace = new SearchTrace(file, BoardGeometry.STANDARD, "IDA*", 1, false, 16);
+        trace.close();
+        assertFalse(Files.exists(file));
+    }
+
+    private static int readState(DataInputStream input) throws IOException {
+        assertEquals(SearchTrace.STATE, input.readUnsignedByte());
+        int state = input.readInt();
+        input.skipNBytes(5);
+        return state;
+    }
+
+    private static int[] readStates(DataInputStream input) throws IOException {
+        int[] states = new int[input.readInt()];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = input.readInt();
+        }
+        return states;
+    }
+}
@@ -0,0 +1,53 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class SolutionCache {
+    private final Map<Key, Solution> entries;
+    private long hits;
+    private long misses;
+
+    public SolutionCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Cache capacity must be positive");
+        }
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Solution> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    record Key(String algorithm, long boards) {
+    }
+
+    // Moves are packed with Move.pack in the canonical frame.
+    record Solution(String outcome, int[] moves, int totalCost) {
+    }
+
+    public synchronized Solution lookup(Key key) {
+        Solution solution = entries.get(key);
+        if (solution == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return solution;
+    }
+
+    public synchronized void store(Key key, Solution solution) {
+        entries.put(key, solution);
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -1,8 +1,44 @@
+import java.util.Set;
+
 public class SolverSelector {
+    // Only solvers that always return an optimal cost are cached: BFS breaks
+    // ties differently on symmetric boards, and ARA* and SMA* return whatever
+    // their deadline or memory budget allowed.
+    private static final Set<String> CACHEABLE = Set.of("A*", "A*-BUCKET", "UCS", "A*-PDB", "IDA*",
+            "IDA*-PDB", "A*-MATCH", "IDA*-MATCH", "BIDIR", "DB", "A*-DB");
+
+    public static GameSolver createSolver(String solverType, BoardState initial, BoardState target,
+                                          boolean displayOpen, SolutionCache cache) {
+        if (cache == null || displayOpen || !CACHEABLE.contains(solverType)
+                || !initial.getGeometry().isStandard()) {
+            return createSolver(solverType, initial, target, displayOpen);
+        }
+        return new CachingSolver(solverType, initial, target, cache);
+    }
+
     public static GameSolver createSolver(String solverType, BoardState initial, BoardState target, boolean displayOpen) {
         return switch (solverType) {
             case "BFS" -> new BreadthFirstSolver(initial, target, displayOpen);
             case "A*" -> new AStarSolver(initial, target, displayOpen);
+            case "A*-BUCKET" -> new AStarSolver(initial, target, displayOpen,
+                    Heuristic.misplacedGems(target), AStarSolver.OpenListType.BUCKET_FIFO);
+            case "UCS" -> new AStarSolver(initial, target, displayOpen,
+                    Heuristic.ZERO, AStarSolver.OpenListType.BUCKET_FIFO);
+            case "A*-PDB" -> new AStarSolver(initial, target, displayOpen,
+                    new PatternDatabaseHeuristic(target), AStarSolver.OpenListType.BINARY_HEAP);
+            case "IDA*" -> new IDAstarSolver(initial, target, displayOpen);
+            case "IDA*-PDB" -> new IDAstarSolver(initial, target, displayOpen, new PatternDatabaseHeuristic(target));
+            case "A*-MATCH" -> new AStarSolver(initial, target, displayOpen,
+                    new MatchingHeuristic(target), AStarSolver.OpenListType.BINARY_HEAP);
+            case "IDA*-MATCH" -> new IDAstarSolver(initial, target, displayOpen, new MatchingHeuristic(target));
+            case "BIDIR" -> new BidirectionalSolver(initial, target, displayOpen);
+            case "HDA*" -> new ParallelAStarSolver(initial, target, displayOpen);
+            case "IDA*-PAR" -> new ParallelIDAstarSolver(initial, target, displayOpen);
+            case "SMA*" -> new SMAStarSolver(initial, target, displayOpen);
+            case "ARA*" -> new AnytimeSolver(initial, target, displayOpen);
+            case "DB" -> new DatabaseSolver(initial, target, displayOpen);
+            case "A*-DB" -> new AStarSolver(initial, target, displayOpen,
+                    GoalDistanceDatabase.heuristicFor(target), AStarSolver.OpenListType.BINARY_HEAP);
             default -> throw new IllegalArgumentException("Unsupported solver type: " + solverType);
         };
     }
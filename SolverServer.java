@@ -0,0 +1,174 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Long-running solver on the loopback interface. Every HTTP request gets
+// its own virtual thread, while searches run on a fixed pool of platform
+// threads behind a bounded queue. Identical requests that arrive while a
+// search is running wait for that search instead of starting their own.
+public class SolverServer {
+    private static final int CACHED_SOLUTIONS = 65536;
+    // These start threads of their own, which the search pool cannot bound.
+    private static final Set<String> SELF_THREADED = Set.of("HDA*", "IDA*-PAR");
+
+    private final HttpServer server;
+    private final ThreadPoolExecutor searchPool;
+    private final ExecutorService requestThreads = Executors.newVirtualThreadPerTaskExecutor();
+    private final ConcurrentHashMap<Key, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final SolutionCache cache = new SolutionCache(CACHED_SOLUTIONS);
+    private final AtomicLong solved = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private record Key(String algorithm, String start, String goal) {
+    }
+
+    public SolverServer(int port, int workerCount, int queueCapacity) throws IOException {
+        if (workerCount < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Worker count and queue capacity must be positive");
+        }
+        this.searchPool = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), Thread.ofPlatform().name("solver-", 1).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/solve", this::handleSolve);
+        server.createContext("/stats", this::handleStats);
+        server.setExecutor(requestThreads);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        searchPool.shutdownNow();
+        requestThreads.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // The request body is one batch record, "algorithm;start;goal". The
+    // response has the same lines Ex1 writes to output.txt.
+    private void handleSolve(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, "Use POST with algorithm;start;goal\n");
+                return;
+            }
+
+            String[] fields = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)
+                    .trim().split(";");
+            if (fields.length != 3) {
+                respond(exchange, 400, "Expected algorithm;start;goal\n");
+                return;
+            }
+
+            // Commas between cells are optional, so they are dropped before
+            // requests are compared.
+            Key key = new Key(fields[0].trim(), fields[1].replace(",", "").trim(),
+                    fields[2].replace(",", "").trim());
+            if (SELF_THREADED.contains(key.algorithm())) {
+                respond(exchange, 400, key.algorithm() + " runs its own threads and is not served\n");
+                return;
+            }
+            try {
+                respond(exchange, 200, awaitSolution(key));
+            } catch (RejectedExecutionException e) {
+                rejected.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                respond(exchange, 503, "Search queue is full\n");
+            } catch (CancellationException e) {
+                respond(exchange, 503, "Server is shutting down\n");
+            } catch (IllegalArgumentException e) {
+                respond(exchange, 400, e.getMessage() + "\n");
+            } catch (RuntimeException e) {
+                respond(exchange, 500, "Search failed: " + e + "\n");
+            }
+        }
+    }
+
+    private String awaitSolution(Key key) {
+        CompletableFuture<String> search = new CompletableFuture<>();
+        CompletableFuture<String> running = inFlight.putIfAbsent(key, search);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            search = running;
+        } else {
+            submit(key, search);
+        }
+
+        try {
+            return search.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for a search");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException failure) {
+                throw failure;
+            }
+            throw new IllegalStateException("Search failed", e.getCause());
+        }
+    }
+
+    private void submit(Key key, CompletableFuture<String> search) {
+        try {
+            searchPool.execute(() -> {
+                try {
+                    search.complete(solve(key));
+                } catch (RuntimeException e) {
+                    search.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(key, search);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, search);
+            search.completeExceptionally(e);
+        }
+    }
+
+    private String solve(Key key) {
+        BoardState[] boards = BoardState.parsePuzzle(key.start(), key.goal());
+        GameSolver solver = SolverSelector.createSolver(key.algorithm(), boards[0], boards[1], false, cache);
+
+        long beginTime = System.nanoTime();
+        solver.execute();
+        double totalTime = (System.nanoTime() - beginTime) / 1e9;
+        solved.incrementAndGet();
+
+        return solver.getSolutionPath()
+                + "Num: " + solver.getExploredStates() + "\n"
+                + "Cost: " + Ex1.describeCost(solver) + "\n"
+                + totalTime + " seconds\n";
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            respond(exchange, 200, String.format(
+                    "solved %d%ncoalesced %d%nrejected %d%nrunning %d%nqueued %d%ncache hits %d%n",
+                    solved.get(), coalesced.get(), rejected.get(), searchPool.getActiveCount(),
+                    searchPool.getQueue().size(), cache.getHits()));
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+}
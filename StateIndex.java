@@ -0,0 +1,129 @@
+import java.util.Arrays;
+
+public class StateIndex {
+    private static final int EMPTY = 0;
+    private static final int WALL = 1;
+    private static final int SYMBOLS = 4;
+
+    private final int[] freeCells;
+    private final int[] symbolCounts = new int[SYMBOLS];
+    private final int wallBits;
+    private final int size;
+    // Non-standard boards already number their states densely, so their
+    // rank is the state id itself and the index grows with the board.
+    private final BoardGeometry interned;
+
+    private StateIndex(BoardGeometry geometry) {
+        freeCells = new int[0];
+        wallBits = 0;
+        size = 0;
+        interned = geometry;
+    }
+
+    private StateIndex(int reference) {
+        int free = 0;
+        int walls = 0;
+        int[] cells = new int[9];
+        for (int i = 0; i < 9; i++) {
+            int cell = BoardState.cellOf(reference, i);
+            if (cell == WALL) {
+                walls = BoardState.withCell(walls, i, WALL);
+            } else {
+                cells[free++] = i;
+                symbolCounts[toSymbol(cell)]++;
+            }
+        }
+        freeCells = Arrays.copyOf(cells, free);
+        wallBits = walls;
+        size = Math.toIntExact(countArrangements());
+        interned = null;
+    }
+
+    public static StateIndex forBoard(BoardState reference) {
+        BoardGeometry geometry = reference.getGeometry();
+        return geometry.isStandard() ? new StateIndex(reference.getPackedState()) : new StateIndex(geometry);
+    }
+
+    public static StateIndex forBoard(int referencePacked) {
+        return new StateIndex(referencePacked);
+    }
+
+    // For interned boards this is the number of states seen so far, and
+    // rank-indexed tables must grow as new ranks appear.
+    public int size() {
+        return interned == null ? size : interned.internedStates();
+    }
+
+    public int rank(BoardState state) {
+        return rank(state.getPackedState());
+    }
+
+    public int rank(int packed) {
+        if (interned != null) {
+            return packed;
+        }
+
+        int[] remaining = symbolCounts.clone();
+        int cellsLeft = freeCells.length;
+        long arrangements = size;
+        long rank = 0;
+
+        for (int cell : freeCells) {
+            int symbol = toSymbol(BoardState.cellOf(packed, cell));
+            for (int smaller = 0; smaller < symbol; smaller++) {
+                rank += arrangements * remaining[smaller] / cellsLeft;
+            }
+            arrangements = arrangements * remaining[symbol] / cellsLeft;
+            remaining[symbol]--;
+            cellsLeft--;
+        }
+        return (int) rank;
+    }
+
+    public int unrank(int rank) {
+        if (interned != null) {
+            return rank;
+        }
+
+        int[] remaining = symbolCounts.clone();
+        int cellsLeft = freeCells.length;
+        long arrangements = size;
+        long offset = rank;
+        int packed = wallBits;
+
+        for (int cell : freeCells) {
+            int symbol = 0;
+            long block = arrangements * remaining[symbol] / cellsLeft;
+            while (offset >= block) {
+                offset -= block;
+                symbol++;
+                block = arrangements * remaining[symbol] / cellsLeft;
+            }
+            packed = BoardState.withCell(packed, cell, fromSymbol(symbol));
+            arrangements = block;
+            remaining[symbol]--;
+            cellsLeft--;
+        }
+        return packed;
+    }
+
+    private long countArrangements() {
+        long total = 1;
+        int placed = 0;
+        for (int count : symbolCounts) {
+            for (int k = 1; k <= count; k++) {
+                placed++;
+                total = total * placed / k;
+            }
+        }
+        return total;
+    }
+
+    private static int toSymbol(int cell) {
+        return cell == EMPTY ? 0 : cell - 1;
+    }
+
+    private static int fromSymbol(int symbol) {
+        return symbol == 0 ? EMPTY : symbol + 1;
+    }
+}
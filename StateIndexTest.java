@@ -0,0 +1,56 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class StateIndexTest {
+    private static final String[] BOARDS = {"GBX_XB_R_", "R_BG__B__", "BB_R_G_X_", "XXXXGXXXX", "_________"};
+
+    @Test
+    void unrankInvertsRankOverTheWholeSpace() {
+        for (String board : BOARDS) {
+            BoardState reference = new BoardState(board);
+            StateIndex index = StateIndex.forBoard(reference);
+            PackedStateSet seen = new PackedStateSet();
+            for (int rank = 0; rank < index.size(); rank++) {
+                int packed = index.unrank(rank);
+                assertEquals(rank, index.rank(packed), board + " rank " + rank);
+                assertTrue(seen.add(packed), board + " unranks two ranks to one state");
+                assertSameWallsAndGems(reference.getPackedState(), packed);
+            }
+        }
+    }
+
+    @Test
+    void rankedStatesStayInsideTheIndex() {
+        BoardState reference = new BoardState("R_BG__B__");
+        StateIndex index = StateIndex.forBoard(reference);
+        for (BoardState successor : reference) {
+            int rank = index.rank(successor);
+            assertTrue(rank >= 0 && rank < index.size());
+            assertEquals(successor.getPackedState(), index.unrank(rank));
+        }
+    }
+
+    @Test
+    void sizeCountsTheArrangementsOfTheFreeCells() {
+        // Seven free cells holding one emerald, two sapphires, one ruby: 7! / (3! 2!).
+        assertEquals(420, StateIndex.forBoard(new BoardState("GBX_XB_R_")).size());
+        assertEquals(1, StateIndex.forBoard(new BoardState("_________")).size());
+    }
+
+    private static void assertSameWallsAndGems(int reference, int packed) {
+        int[] expected = new int[5];
+        int[] actual = new int[5];
+        for (int cell = 0; cell < 9; cell++) {
+            int referenceCell = BoardState.cellOf(reference, cell);
+            int cellValue = BoardState.cellOf(packed, cell);
+            assertEquals(referenceCell == 1, cellValue == 1, "walls moved");
+            expected[referenceCell]++;
+            actual[cellValue]++;
+        }
+        for (int value = 0; value < expected.length; value++) {
+            assertEquals(expected[value], actual[value], "gem counts changed");
+        }
+    }
+}
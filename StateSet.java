@@ -0,0 +1,21 @@
+import java.util.function.IntConsumer;
+
+public interface StateSet {
+    boolean add(BoardState state);
+
+    boolean contains(BoardState state);
+
+    boolean remove(BoardState state);
+
+    boolean add(int packedState);
+
+    boolean contains(int packedState);
+
+    boolean remove(int packedState);
+
+    int size();
+
+    void clear();
+
+    void forEach(IntConsumer action);
+}
@@ -0,0 +1,44 @@
+import java.util.Arrays;
+
+public final class SuccessorBuffer {
+    // At most four moves for each of the nine cells of the 3x3 board;
+    // larger boards grow the arrays on demand.
+    private static final int CAPACITY = 36;
+
+    private int[] moves = new int[CAPACITY];
+    private int[] states = new int[CAPACITY];
+    private int[] costs = new int[CAPACITY];
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public int moveAt(int i) {
+        return moves[i];
+    }
+
+    public int stateAt(int i) {
+        return states[i];
+    }
+
+    public int costAt(int i) {
+        return costs[i];
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    void add(int move, int state, int cost) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size << 1);
+            states = Arrays.copyOf(states, size << 1);
+            costs = Arrays.copyOf(costs, size << 1);
+        }
+        moves[size] = move;
+        states[size] = state;
+        costs[size] = cost;
+        size++;
+    }
+}
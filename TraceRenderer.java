@@ -0,0 +1,124 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+// Prints a SearchTrace file in the layout the solvers use on the console.
+public class TraceRenderer {
+    private static final String STANDARD_STREAM = "-";
+
+    private final DataInputStream input;
+    private final PrintWriter output;
+    private final Map<Integer, int[]> cellsOfState = new HashMap<>();
+    private int rows;
+    private int columns;
+
+    private TraceRenderer(DataInputStream input, PrintWriter output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: java TraceRenderer <trace file> [output|-]");
+            System.exit(2);
+        }
+
+        String outputName = args.length == 2 ? args[1] : STANDARD_STREAM;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(Path.of(args[0]))));
+             PrintWriter output = openOutput(outputName)) {
+            new TraceRenderer(input, output).render();
+        }
+    }
+
+    private void render() throws IOException {
+        if (input.readInt() != SearchTrace.MAGIC) {
+            throw new IOException("Not a search trace");
+        }
+        int version = input.readUnsignedByte();
+        if (version != SearchTrace.VERSION) {
+            throw new IOException("Unsupported trace version " + version);
+        }
+        rows = input.readUnsignedShort();
+        columns = input.readUnsignedShort();
+        output.printf("Trace of %s on a %dx%d board%n", input.readUTF(), rows, columns);
+
+        while (true) {
+            int tag = input.readUnsignedByte();
+            switch (tag) {
+                case SearchTrace.STATE -> readState();
+                case SearchTrace.FULL -> renderFull();
+                case SearchTrace.DIFF -> renderDiff();
+                case SearchTrace.END -> {
+                    output.printf("%nEnd of trace: %d steps, %d snapshots dropped%n",
+                            input.readLong(), input.readLong());
+                    return;
+                }
+                default -> throw new IOException("Unknown record " + tag);
+            }
+        }
+    }
+
+    private void readState() throws IOException {
+        int state = input.readInt();
+        int[] cells = new int[rows * columns];
+        for (int cell = 0; cell < cells.length; cell += 2) {
+            int pair = input.readUnsignedByte();
+            cells[cell] = pair >>> 4;
+            if (cell + 1 < cells.length) {
+                cells[cell + 1] = pair & 0xF;
+            }
+        }
+        cellsOfState.put(state, cells);
+    }
+
+    private void renderFull() throws IOException {
+        int list = input.readInt();
+        long step = input.readLong();
+        int count = input.readInt();
+        output.printf("%nOpen list %d at step %d: %d states%n", list, step, count);
+        output.println("------------------------");
+        for (int i = 0; i < count; i++) {
+            renderBoard(input.readInt(), "");
+        }
+        output.println("------------------------");
+    }
+
+    private void renderDiff() throws IOException {
+        int list = input.readInt();
+        long step = input.readLong();
+        output.printf("%nOpen list %d at step %d, changes:%n", list, step);
+        output.println("------------------------");
+        int added = input.readInt();
+        for (int i = 0; i < added; i++) {
+            renderBoard(input.readInt(), "+ ");
+        }
+        int removed = input.readInt();
+        for (int i = 0; i < removed; i++) {
+            renderBoard(input.readInt(), "- ");
+        }
+        output.println("------------------------");
+    }
+
+    private void renderBoard(int state, String prefix) throws IOException {
+        int[] cells = cellsOfState.get(state);
+        if (cells == null) {
+            throw new IOException("State " + state + " is used before it is described");
+        }
+        for (int row = 0; row < rows; row++) {
+            StringBuilder line = new StringBuilder(prefix).append('[');
+            for (int col = 0; col < columns; col++) {
+                line.append(BoardState.symbolOf(cells[row * columns + col])).append(col < columns - 1 ? ',' : ']');
+            }
+            output.println(line);
+        }
+        output.println();
+    }
+
+    private static PrintWriter openOutput(String name) throws IOException {
+        OutputStream stream = STANDARD_STREAM.equals(name) ? System.out : Files.newOutputStream(Path.of(name));
+        return new PrintWriter(new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,134 @@
+import java.util.Arrays;
+
+// Fixed-size table of states seen by IDA*, kept across threshold
+// iterations. Each bucket holds two entries: a depth-preferred one that
+// keeps the state closest to the root, and one that is always replaced.
+// The table starts small and doubles while it fills up, never past the
+// budget; from then on the replacement policy decides what stays.
+public final class TranspositionTable {
+    private static final int ENTRY_INTS = 4;
+    private static final int BUCKET_INTS = 2 * ENTRY_INTS;
+    private static final int BUCKET_BYTES = BUCKET_INTS * Integer.BYTES;
+    private static final int INITIAL_BUCKETS = 1 << 8;
+
+    // Entry layout: state, g + 1 (0 marks an empty entry), bound, iteration.
+    private static final int STATE = 0;
+    private static final int COST = 1;
+    private static final int BOUND = 2;
+    private static final int ITERATION = 3;
+
+    private final int maxBuckets;
+    private int[] entries;
+    private int bucketMask;
+    private int size;
+
+    public TranspositionTable(long budgetBytes) {
+        if (budgetBytes < BUCKET_BYTES) {
+            throw new IllegalArgumentException("Transposition table budget must be at least " + BUCKET_BYTES + " bytes");
+        }
+        this.maxBuckets = (int) Long.highestOneBit(Math.min(budgetBytes / BUCKET_BYTES, (1 << 30) / BUCKET_INTS));
+        allocate(Math.min(INITIAL_BUCKETS, maxBuckets));
+    }
+
+    // Proven lower bound on the cost from the state to the goal, or 0 when
+    // the state is not in the table.
+    public int lowerBound(int state) {
+        int entry = find(state);
+        return entry < 0 ? 0 : entries[entry + BOUND];
+    }
+
+    // True when the state was already reached more cheaply, or as cheaply
+    // in this iteration, so searching it again cannot find anything new.
+    public boolean dominates(int state, int pathCost, int iteration) {
+        int entry = find(state);
+        if (entry < 0) {
+            return false;
+        }
+        int bestCost = entries[entry + COST] - 1;
+        return bestCost < pathCost || (bestCost == pathCost && entries[entry + ITERATION] == iteration);
+    }
+
+    public void store(int state, int pathCost, int bound, int iteration) {
+        int entry = find(state);
+        if (entry < 0 && size >= capacity() * 3 / 4 && capacity() < 2 * maxBuckets) {
+            grow();
+        }
+        if (entry >= 0) {
+            int bestCost = entries[entry + COST] - 1;
+            if (pathCost <= bestCost) {
+                entries[entry + COST] = pathCost + 1;
+                entries[entry + ITERATION] = iteration;
+            }
+            entries[entry + BOUND] = Math.max(entries[entry + BOUND], bound);
+            return;
+        }
+
+        int preferred = bucketOf(state);
+        int replaced = preferred + ENTRY_INTS;
+        if (entries[preferred + COST] == 0) {
+            entry = preferred;
+            size++;
+        } else if (pathCost <= entries[preferred + COST] - 1) {
+            if (entries[replaced + COST] == 0) {
+                size++;
+            }
+            System.arraycopy(entries, preferred, entries, replaced, ENTRY_INTS);
+            entry = preferred;
+        } else {
+            entry = replaced;
+            if (entries[replaced + COST] == 0) {
+                size++;
+            }
+        }
+
+        entries[entry + STATE] = state;
+        entries[entry + COST] = pathCost + 1;
+        entries[entry + BOUND] = bound;
+        entries[entry + ITERATION] = iteration;
+    }
+
+    public void clear() {
+        Arrays.fill(entries, 0);
+        size = 0;
+    }
+
+    private void allocate(int buckets) {
+        entries = new int[buckets * BUCKET_INTS];
+        bucketMask = buckets - 1;
+        size = 0;
+    }
+
+    private void grow() {
+        int[] previous = entries;
+        allocate(2 * (bucketMask + 1));
+        for (int entry = 0; entry < previous.length; entry += ENTRY_INTS) {
+            if (previous[entry + COST] != 0) {
+                store(previous[entry + STATE], previous[entry + COST] - 1,
+                        previous[entry + BOUND], previous[entry + ITERATION]);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return entries.length / ENTRY_INTS;
+    }
+
+    private int find(int state) {
+        int bucket = bucketOf(state);
+        for (int entry = bucket; entry < bucket + BUCKET_INTS; entry += ENTRY_INTS) {
+            if (entries[entry + COST] != 0 && entries[entry + STATE] == state) {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    private int bucketOf(int state) {
+        int hash = state * 0x9E3779B9;
+        return ((hash ^ (hash >>> 16)) & bucketMask) * BUCKET_INTS;
+    }
+}
@@ -0,0 +1,101 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TranspositionTableTest {
+    // One bucket of two entries: every state competes for the same slots.
+    private static final long ONE_BUCKET = 32;
+
+    @Test
+    void cheaperStatesTakeTheDepthPreferredEntry() {
+        TranspositionTable table = new TranspositionTable(ONE_BUCKET);
+        table.store(101, 5, 50, 1);
+        table.store(102, 3, 30, 1);
+        assertEquals(50, table.lowerBound(101));
+        assertEquals(30, table.lowerBound(102));
+
+        // Dearer than the preferred entry, so it replaces the other one.
+        table.store(103, 9, 90, 1);
+        assertEquals(0, table.lowerBound(101));
+        assertEquals(30, table.lowerBound(102));
+        assertEquals(90, table.lowerBound(103));
+
+        // Cheaper still: takes the preferred entry and demotes 102.
+        table.store(104, 1, 10, 1);
+        assertEquals(0, table.lowerBound(103));
+        assertEquals(30, table.lowerBound(102));
+        assertEquals(10, table.lowerBound(104));
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    void storingAKnownStateKeepsTheBestCostAndTheHighestBound() {
+        TranspositionTable table = new TranspositionTable(ONE_BUCKET);
+        table.store(7, 6, 20, 1);
+        table.store(7, 8, 25, 2);
+        assertEquals(25, table.lowerBound(7));
+        assertTrue(table.dominates(7, 7, 3));
+        assertTrue(table.dominates(7, 6, 1));
+
+        table.store(7, 4, 10, 3);
+        assertEquals(25, table.lowerBound(7));
+        assertFalse(table.dominates(7, 3, 3));
+        assertTrue(table.dominates(7, 4, 3));
+        assertFalse(table.dominates(7, 4, 4));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void growsUpToTheBudgetAndNeverReportsAForeignBound() {
+        long budget = 1 << 16;
+        TranspositionTable table = new TranspositionTable(budget);
+        Random random = new Random(17);
+        int[] states = new int[20_000];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = random.nextInt(1 << 27);
+            table.store(states[i], random.nextInt(40), boundOf(states[i]), 1);
+            assertTrue(table.size() <= table.capacity());
+            assertTrue((long) table.capacity() * 4 * Integer.BYTES <= budget);
+        }
+        assertEquals(budget / (4 * Integer.BYTES), table.capacity());
+
+        int found = 0;
+        for (int state : states) {
+            int bound = table.lowerBound(state);
+            if (bound != 0) {
+                assertEquals(boundOf(state), bound);
+                found++;
+            }
+        }
+        assertTrue(found > 0);
+        assertTrue(found <= table.capacity());
+    }
+
+    @Test
+    void clearForgetsEverything() {
+        TranspositionTable table = new TranspositionTable(1 << 12);
+        for (int state = 1; state <= 100; state++) {
+            table.store(state, state, state, 1);
+        }
+        table.clear();
+        assertEquals(0, table.size());
+        for (int state = 1; state <= 100; state++) {
+            assertEquals(0, table.lowerBound(state));
+            assertFalse(table.dominates(state, 1000, 1));
+        }
+    }
+
+    @Test
+    void rejectsABudgetSmallerThanOneBucket() {
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(ONE_BUCKET - 1));
+    }
+
+    private static int boundOf(int state) {
+        return 1 + Math.floorMod(state, 97);
+    }
+}
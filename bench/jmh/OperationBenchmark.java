@@ -0,0 +1,42 @@
+package jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Core data-structure operations, each applied to 256 states reachable
+// from one start board.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+public class OperationBenchmark {
+    @Param({"hashCode", "equals", "successorsIterable", "successorsBuffer", "freshSuccessorEstimate",
+            "misplacedGems", "misplacedGemsFull", "misplacedGemsDelta"})
+    public String operation;
+
+    private LongSupplier workload;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        workload = Workloads.operation(operation);
+    }
+
+    @Benchmark
+    public long run() {
+        return workload.getAsLong();
+    }
+}
@@ -0,0 +1,43 @@
+package jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Full solves over the fixed easy/medium/hard corpus.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+    @Param({"BFS", "A*", "DFID", "IDA*"})
+    public String algorithm;
+
+    @Param({"easy-1", "easy-2", "medium-1", "medium-2", "hard-1", "hard-2"})
+    public String puzzle;
+
+    private LongSupplier workload;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        workload = Workloads.solver(algorithm, puzzle);
+    }
+
+    @Benchmark
+    public long solve() {
+        return workload.getAsLong();
+    }
+}
@@ -0,0 +1,27 @@
+package jmh;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+// Reflective bridge to BenchmarkWorkloads, which lives in the default
+// package and so cannot be imported from here.
+final class Workloads {
+    private static final String CATALOGUE = "BenchmarkWorkloads";
+
+    private Workloads() {
+    }
+
+    static LongSupplier solver(String algorithm, String puzzle) throws ReflectiveOperationException {
+        return lookup("solver", algorithm, puzzle);
+    }
+
+    static LongSupplier operation(String name) throws ReflectiveOperationException {
+        return lookup("operation", name);
+    }
+
+    private static LongSupplier lookup(String method, String... arguments) throws ReflectiveOperationException {
+        Class<?>[] types = new Class<?>[arguments.length];
+        Arrays.fill(types, String.class);
+        return (LongSupplier) Class.forName(CATALOGUE).getMethod(method, types).invoke(null, (Object[]) arguments);
+    }
+}